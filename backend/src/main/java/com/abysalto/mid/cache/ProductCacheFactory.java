@@ -0,0 +1,186 @@
+package com.abysalto.mid.cache;
+
+import com.abysalto.mid.config.ProductCacheProperties;
+import com.abysalto.mid.dto.response.CategoryDto;
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.ProductPageDto;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the product caches from their per-cache policies. Background
+ * refreshes share one bounded executor; when it is saturated a refresh is
+ * dropped and simply retried on a later read, while the stale value keeps
+ * being served. Only reloads go there: Caffeine's own maintenance and
+ * removal work stays on its default executor, so a busy refresh pool
+ * never delays eviction.
+ * <p>
+ * With {@code spring.threads.virtual.enabled} each refresh runs on its own
+ * virtual thread instead, still capped at {@code refresh-threads} concurrent
+ * refreshes so DummyJSON sees the same load in either mode.
+ */
+@Component
+public class ProductCacheFactory {
+
+    private final ProductCacheProperties properties;
+    private final ThreadPoolExecutor refreshPool;
+    private final Executor refreshExecutor;
+
+    public ProductCacheFactory(ProductCacheProperties properties,
+            Environment environment) {
+        this.properties = properties;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.refreshPool = null;
+            this.refreshExecutor = boundedVirtualExecutor(properties.refreshThreads());
+        } else {
+            this.refreshPool = new ThreadPoolExecutor(
+                    properties.refreshThreads(), properties.refreshThreads(),
+                    0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(properties.refreshQueueCapacity()),
+                    new CustomizableThreadFactory("product-cache-refresh-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            this.refreshExecutor = refreshPool;
+        }
+    }
+
+    public <K, V> LoadingCache<K, V> build(String cacheName,
+            CacheLoader<K, V> loader) {
+        ProductCacheProperties.Policy policy = properties.policy(cacheName);
+        return Caffeine.newBuilder()
+                       .refreshAfterWrite(policy.refreshAfter())
+                       .expireAfterWrite(policy.expireAfter())
+                       .maximumWeight(policy.maxBytes())
+                       .weigher((K key, V value) -> weigh(value))
+                       .build(new BoundedRefreshLoader<>(loader, refreshExecutor));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshPool != null) {
+            refreshPool.shutdownNow();
+        }
+    }
+
+    private static Executor boundedVirtualExecutor(int maxConcurrent) {
+        VirtualThreadTaskExecutor virtualThreads =
+                new VirtualThreadTaskExecutor("product-cache-refresh-");
+        Semaphore permits = new Semaphore(maxConcurrent);
+        return task -> {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("Product cache refresh limit reached");
+            }
+            try {
+                virtualThreads.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Runs reloads on the refresh pool instead of the executor Caffeine
+     * passes in. A rejected reload completes as cancelled, which Caffeine
+     * treats as a refresh that did not happen.
+     */
+    private record BoundedRefreshLoader<K, V>(CacheLoader<K, V> delegate,
+            Executor refreshExecutor) implements CacheLoader<K, V> {
+
+        @Override
+        public V load(K key) throws Exception {
+            return delegate.load(key);
+        }
+
+        @Override
+        public Map<? extends K, ? extends V> loadAll(Set<? extends K> keys) throws Exception {
+            return delegate.loadAll(keys);
+        }
+
+        @Override
+        public CompletableFuture<V> asyncReload(K key, V oldValue, Executor executor) {
+            try {
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return delegate.reload(key, oldValue);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, refreshExecutor);
+            } catch (RejectedExecutionException e) {
+                CompletableFuture<V> dropped = new CompletableFuture<>();
+                dropped.cancel(false);
+                return dropped;
+            }
+        }
+    }
+
+    /**
+     * Rough retained size of a cached payload in bytes: string contents plus
+     * a fixed per-object overhead. Pages built from the local catalog share
+     * product instances, so this overestimates them, which errs on the safe
+     * side.
+     */
+    static int weigh(Object value) {
+        if (value instanceof ProductDto product) {
+            return weigh(product);
+        }
+        if (value instanceof ProductPageDto page) {
+            int bytes = 64;
+            for (ProductDto product : page.products()) {
+                bytes += weigh(product);
+            }
+            return bytes;
+        }
+        if (value instanceof List<?> list) {
+            int bytes = 32;
+            for (Object item : list) {
+                bytes += item instanceof CategoryDto category
+                        ? 48 + chars(category.slug()) + chars(category.name()) + chars(category.url())
+                        : 16;
+            }
+            return bytes;
+        }
+        return 64;
+    }
+
+    private static int weigh(ProductDto product) {
+        int bytes = 120 + chars(product.title()) + chars(product.description())
+                + chars(product.thumbnail()) + chars(product.shippingInformation())
+                + chars(product.warrantyInformation()) + chars(product.returnPolicy());
+        for (String image : product.images()) {
+            bytes += chars(image);
+        }
+        return bytes;
+    }
+
+    private static int chars(String value) {
+        return value == null ? 0 : 40 + value.length();
+    }
+}
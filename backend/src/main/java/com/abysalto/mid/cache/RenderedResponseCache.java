@@ -0,0 +1,157 @@
+package com.abysalto.mid.cache;
+
+import com.abysalto.mid.catalog.CatalogUpdatedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of fully rendered JSON response bodies. A hit is answered with the
+ * stored bytes (or their gzip variant) plus that variant's precomputed
+ * strong ETag, so no Jackson serialization happens on the hot path. Spring
+ * MVC compares {@code If-None-Match} with the ETag of the variant being
+ * served.
+ */
+@Component
+public class RenderedResponseCache {
+
+    private static final int MIN_GZIP_BYTES = 1024;
+
+    private final JsonMapper jsonMapper;
+    private final Cache<String, RenderedResponse> responses;
+
+    public RenderedResponseCache(JsonMapper jsonMapper,
+            @Value("${app.products.response-cache.max-bytes}") long maxBytes,
+            @Value("${app.products.response-cache.ttl}") Duration ttl) {
+        this.jsonMapper = jsonMapper;
+        this.responses = Caffeine.newBuilder()
+                                 .maximumWeight(maxBytes)
+                                 .weigher((String key, RenderedResponse value) -> value.weight())
+                                 .expireAfterWrite(ttl)
+                                 .build();
+    }
+
+    public static String key(String endpoint, Object... params) {
+        StringBuilder key = new StringBuilder(endpoint);
+        for (Object param : params) {
+            key.append('|').append(param);
+        }
+        return key.toString();
+    }
+
+    public ResponseEntity<byte[]> respond(String key, String acceptEncoding,
+            Supplier<?> body) {
+        RenderedResponse rendered = responses.get(key, k -> render(body.get()));
+        boolean gzip = rendered.gzip() != null && acceptsGzip(acceptEncoding);
+        byte[] bytes = gzip ? rendered.gzip() : rendered.identity();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                                                            .contentType(MediaType.APPLICATION_JSON)
+                                                            .contentLength(bytes.length)
+                                                            .eTag(gzip ? rendered.gzipEtag() : rendered.etag())
+                                                            .cacheControl(CacheControl.noCache())
+                                                            .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(bytes);
+    }
+
+    @EventListener(CatalogUpdatedEvent.class)
+    public void invalidateAll() {
+        responses.invalidateAll();
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows gzip: listed as
+     * {@code gzip} (or its alias {@code x-gzip}) with a non-zero quality, or
+     * not listed but covered by a non-zero {@code *}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double wildcard = null;
+        for (String element : acceptEncoding.split(",")) {
+            String[] params = element.split(";");
+            String coding = params[0].trim();
+            double quality = quality(params);
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                gzip = gzip == null ? quality : Math.max(gzip, quality);
+            } else if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        Double effective = gzip != null ? gzip : wildcard;
+        return effective != null && effective > 0;
+    }
+
+    private static double quality(String[] params) {
+        for (int i = 1; i < params.length; i++) {
+            String param = params[i].trim();
+            if (param.length() > 2 && param.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private RenderedResponse render(Object body) {
+        byte[] identity = jsonMapper.writeValueAsBytes(body);
+        byte[] gzip = identity.length >= MIN_GZIP_BYTES ? gzip(identity) : null;
+        String etag = etag(identity);
+        // The gzip bytes differ from the identity bytes, so the gzip variant
+        // needs a strong validator of its own
+        String gzipEtag = gzip != null ? etag.substring(0, etag.length() - 1) + "-gz\"" : null;
+        return new RenderedResponse(identity, gzip, etag, gzipEtag);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record RenderedResponse(byte[] identity, byte[] gzip, String etag,
+            String gzipEtag) {
+
+        int weight() {
+            return identity.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.abysalto.mid.cache;
+
+import com.abysalto.mid.dto.response.UserIdentity;
+import com.abysalto.mid.exception.ResourceNotFoundException;
+import com.abysalto.mid.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Maps a username to its user id and cart id so cart and favorites calls can
+ * go straight to id-keyed queries instead of loading the user first. Users
+ * and carts are never re-keyed, so entries only change when a cart is
+ * created or a user is (re)registered.
+ */
+@Component
+public class UserIdentityCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserIdentity> identities;
+
+    public UserIdentityCache(UserRepository userRepository,
+            @Value("${app.identity-cache.expire-after-access}") Duration expireAfterAccess,
+            @Value("${app.identity-cache.maximum-size}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.identities = Caffeine.newBuilder()
+                                  .expireAfterAccess(expireAfterAccess)
+                                  .maximumSize(maximumSize)
+                                  .build();
+    }
+
+    public UserIdentity resolve(String username) {
+        UserIdentity identity = identities.getIfPresent(username);
+        if (identity != null) {
+            return identity;
+        }
+        // Looked up outside the cache's compute so the query never runs under
+        // a map-bin monitor; a rare duplicate lookup is harmless. A cart id
+        // recorded meanwhile by cartCreated must not be replaced by a lookup
+        // that started before the cart existed.
+        UserIdentity loaded = userRepository.findIdentityByUsername(username).orElseThrow(
+                () -> new ResourceNotFoundException("User not found"));
+        return identities.asMap().merge(username, loaded, UserIdentityCache::newer);
+    }
+
+    /**
+     * Records a newly created cart once the creating transaction commits, so
+     * a rolled-back cart id is never cached.
+     */
+    public void cartCreated(String username, UserIdentity identity, Long cartId) {
+        UserIdentity updated = identity.withCartId(cartId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            identities.asMap().merge(username, updated, UserIdentityCache::newer);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                identities.asMap().merge(username, updated, UserIdentityCache::newer);
+            }
+        });
+    }
+
+    public void invalidate(String username) {
+        identities.invalidate(username);
+    }
+
+    /** Keeps a known cart id over a lookup that did not see the cart yet. */
+    private static UserIdentity newer(UserIdentity cached, UserIdentity loaded) {
+        return cached.cartId() != null && loaded.cartId() == null ? cached : loaded;
+    }
+}
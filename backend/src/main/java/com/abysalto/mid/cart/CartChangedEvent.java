@@ -0,0 +1,6 @@
+package com.abysalto.mid.cart;
+
+import com.abysalto.mid.dto.response.CartDelta;
+
+public record CartChangedEvent(String username, CartDelta delta) {
+}
@@ -0,0 +1,97 @@
+package com.abysalto.mid.cart;
+
+import com.abysalto.mid.constant.CartOperationType;
+import com.abysalto.mid.dto.request.CartOperation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Applies an ordered list of cart operations as JDBC batches. Consecutive
+ * operations that map to the same statement share one batch, which the
+ * driver sends in a single round trip when {@code rewriteBatchedStatements}
+ * is on; order across batches is kept, so the result matches applying the
+ * operations one by one.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartItemBatchWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void apply(Long cartId, List<CartOperation> operations) {
+        int start = 0;
+        while (start < operations.size()) {
+            Statement statement = Statement.of(operations.get(start));
+            int end = start + 1;
+            while (end < operations.size()
+                    && Statement.of(operations.get(end)) == statement) {
+                end++;
+            }
+            List<CartOperation> run = operations.subList(start, end);
+            jdbcTemplate.batchUpdate(statement.sql, run, run.size(),
+                    (ps, operation) -> statement.bind(ps, cartId, operation));
+            start = end;
+        }
+    }
+
+    private enum Statement {
+        UPSERT("INSERT INTO cart_items (cart_id, product_id, quantity, product_title, product_price, product_thumbnail) "
+                + "VALUES (?, ?, ?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE quantity = quantity + ?"),
+        UPDATE("UPDATE cart_items SET quantity = ? WHERE cart_id = ? AND product_id = ?"),
+        DELETE("DELETE FROM cart_items WHERE cart_id = ? AND product_id = ?");
+
+        private final String sql;
+
+        Statement(String sql) {
+            this.sql = sql;
+        }
+
+        static Statement of(CartOperation operation) {
+            if (operation.getType() == CartOperationType.ADD) {
+                return UPSERT;
+            }
+            if (operation.getType() == CartOperationType.UPDATE
+                    && operation.getQuantity() > 0) {
+                return UPDATE;
+            }
+            return DELETE;
+        }
+
+        void bind(PreparedStatement ps, Long cartId, CartOperation operation)
+                throws SQLException {
+            switch (this) {
+                case UPSERT -> {
+                    ps.setLong(1, cartId);
+                    ps.setInt(2, operation.getProductId());
+                    ps.setInt(3, operation.getQuantity());
+                    ps.setString(4, operation.getProductTitle());
+                    if (operation.getProductPrice() != null) {
+                        ps.setDouble(5, operation.getProductPrice());
+                    } else {
+                        ps.setNull(5, Types.DOUBLE);
+                    }
+                    ps.setString(6, operation.getProductThumbnail());
+                    // Bound again rather than VALUES(quantity), which MySQL
+                    // deprecates; same form as CartItemRepository.upsert
+                    ps.setInt(7, operation.getQuantity());
+                }
+                case UPDATE -> {
+                    ps.setInt(1, operation.getQuantity());
+                    ps.setLong(2, cartId);
+                    ps.setInt(3, operation.getProductId());
+                }
+                case DELETE -> {
+                    ps.setLong(1, cartId);
+                    ps.setInt(2, operation.getProductId());
+                }
+            }
+        }
+    }
+}
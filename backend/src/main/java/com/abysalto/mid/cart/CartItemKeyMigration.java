@@ -0,0 +1,92 @@
+package com.abysalto.mid.cart;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Makes sure {@code cart_items} has its {@code (cart_id, product_id)} unique
+ * key before the application serves traffic. The item upserts rely on it:
+ * without the key {@code ON DUPLICATE KEY UPDATE} never fires and every add
+ * inserts another row.
+ * <p>
+ * {@code ddl-auto: update} cannot be trusted with this. On a database that
+ * already holds duplicate rows its {@code ALTER} fails, is only logged, and
+ * the key never exists. So when the key is missing, duplicates are merged
+ * first (quantities summed into the oldest row, the cart version bumped),
+ * then the key is added, and startup fails if it is still not there.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class CartItemKeyMigration {
+
+    static final String KEY_NAME = "uk_cart_items_cart_product";
+
+    private static final String KEY_EXISTS_SQL =
+            "SELECT COUNT(*) FROM information_schema.table_constraints "
+                    + "WHERE table_schema = SCHEMA() AND LOWER(table_name) = 'cart_items' "
+                    + "AND LOWER(constraint_name) = '" + KEY_NAME + "'";
+    private static final String DUPLICATES_SQL =
+            "SELECT cart_id, product_id, MIN(id), SUM(quantity) FROM cart_items "
+                    + "GROUP BY cart_id, product_id HAVING COUNT(*) > 1";
+    private static final String KEEP_SQL =
+            "UPDATE cart_items SET quantity = ? WHERE id = ?";
+    private static final String DROP_OTHERS_SQL =
+            "DELETE FROM cart_items WHERE cart_id = ? AND product_id = ? AND id <> ?";
+    private static final String BUMP_VERSION_SQL =
+            "UPDATE carts SET version = version + 1 WHERE id = ?";
+    private static final String ADD_KEY_SQL =
+            "ALTER TABLE cart_items ADD CONSTRAINT " + KEY_NAME
+                    + " UNIQUE (cart_id, product_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        if (hasKey()) {
+            return;
+        }
+        Integer merged = transactionTemplate.execute(status -> mergeDuplicates());
+        log.warn("Unique key {} missing; merged {} duplicate cart item groups, adding it",
+                KEY_NAME, merged);
+        jdbcTemplate.execute(ADD_KEY_SQL);
+        if (!hasKey()) {
+            throw new IllegalStateException("Unique key " + KEY_NAME
+                    + " on cart_items could not be created");
+        }
+    }
+
+    boolean hasKey() {
+        Integer count = jdbcTemplate.queryForObject(KEY_EXISTS_SQL, Integer.class);
+        return count != null && count > 0;
+    }
+
+    private int mergeDuplicates() {
+        List<Duplicate> duplicates = jdbcTemplate.query(DUPLICATES_SQL, (rs, row) ->
+                new Duplicate(rs.getLong(1), rs.getInt(2), rs.getLong(3), rs.getInt(4)));
+        Set<Long> carts = new HashSet<>();
+        for (Duplicate duplicate : duplicates) {
+            jdbcTemplate.update(KEEP_SQL, duplicate.quantity(), duplicate.keepId());
+            jdbcTemplate.update(DROP_OTHERS_SQL, duplicate.cartId(),
+                    duplicate.productId(), duplicate.keepId());
+            if (carts.add(duplicate.cartId())) {
+                jdbcTemplate.update(BUMP_VERSION_SQL, duplicate.cartId());
+            }
+        }
+        return duplicates.size();
+    }
+
+    private record Duplicate(long cartId, int productId, long keepId, int quantity) {
+    }
+}
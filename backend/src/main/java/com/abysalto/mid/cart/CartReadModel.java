@@ -0,0 +1,58 @@
+package com.abysalto.mid.cart;
+
+import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.pricing.PriceIndex;
+import com.abysalto.mid.pricing.PricedCart;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Read side of the cart: one query joining carts and cart_items by cart id,
+ * mapped straight into {@link CartDto} without managed entities, a
+ * persistence context or a transaction. Items are repriced from the
+ * in-memory {@link PriceIndex} while the rows are read.
+ */
+@Component
+@RequiredArgsConstructor
+public class CartReadModel {
+
+    private static final String CART_SQL =
+            "SELECT c.id AS cart_id, c.version, i.id, i.product_id, i.quantity, "
+                    + "i.product_title, i.product_price, i.product_thumbnail "
+                    + "FROM carts c "
+                    + "LEFT JOIN cart_items i ON i.cart_id = c.id "
+                    + "WHERE c.id = ? "
+                    + "ORDER BY i.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PriceIndex priceIndex;
+
+    public Optional<CartDto> findById(Long cartId) {
+        return Optional.ofNullable(jdbcTemplate.query(CART_SQL, this::extract, cartId));
+    }
+
+    private CartDto extract(ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return null;
+        }
+        long cartId = rs.getLong("cart_id");
+        long version = rs.getLong("version");
+        PricedCart cart = priceIndex.newCart();
+        do {
+            long itemId = rs.getLong("id");
+            if (rs.wasNull()) {
+                continue;
+            }
+            cart.add(itemId, rs.getInt("product_id"),
+                    rs.getInt("quantity"), rs.getString("product_title"),
+                    rs.getObject("product_price", Double.class),
+                    rs.getString("product_thumbnail"));
+        } while (rs.next());
+        return cart.toDto(cartId, version);
+    }
+}
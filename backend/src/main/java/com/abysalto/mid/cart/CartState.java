@@ -0,0 +1,162 @@
+package com.abysalto.mid.cart;
+
+import com.abysalto.mid.entity.CartItem;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory image of one user's cart. All reads and writes go through
+ * {@link #lock()}; the engine never touches the fields of a state it does not
+ * hold the lock for.
+ */
+public class CartState {
+
+    @Getter
+    private final Long cartId;
+    @Getter
+    private long version;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Integer, CartItem> items = new LinkedHashMap<>();
+    private final Map<Integer, CartItem> pending = new LinkedHashMap<>();
+    private boolean evicted;
+    private boolean queued;
+    private volatile long lastAccess = System.nanoTime();
+
+    CartState(Long cartId, long version, Collection<CartItem> loaded) {
+        this.cartId = cartId;
+        this.version = version;
+        loaded.forEach(item -> items.put(item.getProductId(), copy(item)));
+    }
+
+    void lock() {
+        lock.lock();
+    }
+
+    void touch() {
+        lastAccess = System.nanoTime();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    public Collection<CartItem> getItems() {
+        return items.values();
+    }
+
+    public void add(Integer productId, int quantity, String title, Double price,
+            String thumbnail) {
+        CartItem item = items.get(productId);
+        if (item != null) {
+            item.setQuantity(item.getQuantity() + quantity);
+        } else {
+            item = CartItem.builder().productId(productId).quantity(quantity)
+                           .productTitle(title).productPrice(price)
+                           .productThumbnail(thumbnail).build();
+            items.put(productId, item);
+        }
+        markDirty(item);
+    }
+
+    public void setQuantity(Integer productId, int quantity) {
+        if (quantity <= 0) {
+            remove(productId);
+            return;
+        }
+        CartItem item = items.get(productId);
+        if (item != null) {
+            item.setQuantity(quantity);
+            markDirty(item);
+        }
+    }
+
+    public void remove(Integer productId) {
+        CartItem item = items.remove(productId);
+        if (item != null) {
+            markDirty(tombstone(item));
+        }
+    }
+
+    public void clear() {
+        new ArrayList<>(items.keySet()).forEach(this::remove);
+    }
+
+    private void markDirty(CartItem item) {
+        pending.put(item.getProductId(), item);
+        version++;
+    }
+
+    /**
+     * Takes a point-in-time copy of every product row changed since the last
+     * drain. Rows with a zero quantity are deletions.
+     */
+    List<CartItem> drainPending() {
+        List<CartItem> snapshot = new ArrayList<>(pending.size());
+        pending.values().forEach(item -> snapshot.add(copy(item)));
+        pending.clear();
+        return snapshot;
+    }
+
+    /**
+     * Puts back rows whose write failed, unless the product has been changed
+     * again in the meantime, in which case the newer value wins.
+     */
+    void restorePending(List<CartItem> failed) {
+        failed.forEach(item -> pending.putIfAbsent(item.getProductId(), item));
+    }
+
+    void assignId(Integer productId, Long id) {
+        CartItem item = items.get(productId);
+        if (item != null && item.getId() == null) {
+            item.setId(id);
+        }
+    }
+
+    boolean isDirty() {
+        return !pending.isEmpty();
+    }
+
+    boolean isEvicted() {
+        return evicted;
+    }
+
+    void evict() {
+        evicted = true;
+    }
+
+    boolean markQueued() {
+        if (queued) {
+            return false;
+        }
+        queued = true;
+        return true;
+    }
+
+    void clearQueued() {
+        queued = false;
+    }
+
+    long idleNanos() {
+        return System.nanoTime() - lastAccess;
+    }
+
+    private static CartItem tombstone(CartItem item) {
+        CartItem removed = copy(item);
+        removed.setQuantity(0);
+        return removed;
+    }
+
+    private static CartItem copy(CartItem item) {
+        return CartItem.builder().id(item.getId()).productId(item.getProductId())
+                       .quantity(item.getQuantity())
+                       .productTitle(item.getProductTitle())
+                       .productPrice(item.getProductPrice())
+                       .productThumbnail(item.getProductThumbnail()).build();
+    }
+}
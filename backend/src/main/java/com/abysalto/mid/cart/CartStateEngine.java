@@ -0,0 +1,288 @@
+package com.abysalto.mid.cart;
+
+import com.abysalto.mid.cache.UserIdentityCache;
+import com.abysalto.mid.dto.response.UserIdentity;
+import com.abysalto.mid.entity.Cart;
+import com.abysalto.mid.entity.CartItem;
+import com.abysalto.mid.repository.CartRepository;
+import com.abysalto.mid.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Write-behind cart store. Every user's cart lives in memory as a
+ * {@link CartState}; mutations are serialized per cart and answered from
+ * memory, while changed rows are coalesced per product and flushed to
+ * {@code cart_items} in JDBC batches at most {@code max-staleness} later.
+ * <p>
+ * State is node-local, so this mode is only safe with sticky routing or a
+ * single application instance.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cart.write-behind.enabled", havingValue = "true")
+public class CartStateEngine {
+
+    private static final String VERSION_SQL =
+            "UPDATE carts SET version = ? WHERE id = ?";
+    private static final String DELETE_SQL =
+            "DELETE FROM cart_items WHERE cart_id = ? AND product_id = ?";
+    private static final String UPDATE_SQL =
+            "UPDATE cart_items SET quantity = ?, product_title = ?, product_price = ?, product_thumbnail = ? "
+                    + "WHERE cart_id = ? AND product_id = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO cart_items (cart_id, product_id, quantity, product_title, product_price, product_thumbnail) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final CartRepository cartRepository;
+    private final UserIdentityCache identityCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long idleEvictionNanos;
+
+    private final Map<Long, CartState> states = new ConcurrentHashMap<>();
+    private final Queue<CartState> dirtyCarts = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public CartStateEngine(UserRepository userRepository,
+            CartRepository cartRepository, UserIdentityCache identityCache,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.cart.write-behind.batch-size}") int batchSize,
+            @Value("${app.cart.write-behind.idle-eviction}") Duration idleEviction) {
+        this.userRepository = userRepository;
+        this.cartRepository = cartRepository;
+        this.identityCache = identityCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.idleEvictionNanos = idleEviction.toNanos();
+    }
+
+    /**
+     * Runs {@code operation} against the user's cart while holding its lock.
+     * Any rows the operation changes are queued for the next flush.
+     */
+    public <T> T apply(String username, Function<CartState, T> operation) {
+        UserIdentity identity = identityCache.resolve(username);
+        while (true) {
+            CartState state = states.computeIfAbsent(identity.userId(),
+                    userId -> load(username, identity));
+            state.lock();
+            try {
+                if (state.isEvicted()) {
+                    continue;
+                }
+                state.touch();
+                T result = operation.apply(state);
+                if (state.isDirty() && state.markQueued()) {
+                    dirtyCarts.add(state);
+                }
+                return result;
+            } finally {
+                state.unlock();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cart.write-behind.max-staleness}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<CartState, List<CartItem>> changes = new LinkedHashMap<>();
+            Map<CartState, Long> versions = new LinkedHashMap<>();
+            CartState state;
+            while ((state = dirtyCarts.poll()) != null) {
+                state.lock();
+                try {
+                    state.clearQueued();
+                    List<CartItem> rows = state.drainPending();
+                    if (!rows.isEmpty()) {
+                        changes.put(state, rows);
+                        versions.put(state, state.getVersion());
+                    }
+                } finally {
+                    state.unlock();
+                }
+            }
+            if (!changes.isEmpty()) {
+                write(changes, versions);
+            }
+            evictIdle();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(Map<CartState, List<CartItem>> changes,
+            Map<CartState, Long> versions) {
+        List<PendingRow> deletes = new ArrayList<>();
+        List<PendingRow> upserts = new ArrayList<>();
+        changes.forEach((state, rows) -> rows.forEach(row ->
+                (row.getQuantity() > 0 ? upserts : deletes).add(new PendingRow(state, row))));
+
+        List<PendingRow> inserts = new ArrayList<>();
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(VERSION_SQL, versions.entrySet(), batchSize,
+                        (ps, entry) -> {
+                            ps.setLong(1, entry.getValue());
+                            ps.setLong(2, entry.getKey().getCartId());
+                        });
+                jdbcTemplate.batchUpdate(DELETE_SQL, deletes, batchSize, (ps, row) -> {
+                    ps.setLong(1, row.state().getCartId());
+                    ps.setInt(2, row.item().getProductId());
+                });
+
+                int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, upserts,
+                        batchSize, (ps, row) -> {
+                            bindDetails(ps, 1, row.item());
+                            ps.setLong(5, row.state().getCartId());
+                            ps.setInt(6, row.item().getProductId());
+                        });
+                int index = 0;
+                for (int[] chunk : counts) {
+                    for (int count : chunk) {
+                        if (count == 0) {
+                            inserts.add(upserts.get(index));
+                        }
+                        index++;
+                    }
+                }
+
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(
+                            con -> con.prepareStatement(INSERT_SQL,
+                                    Statement.RETURN_GENERATED_KEYS),
+                            new InsertSetter(inserts), keyHolder);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Cart flush failed for {} carts, retrying on next cycle",
+                    changes.size(), e);
+            changes.forEach((state, rows) -> {
+                state.lock();
+                try {
+                    state.restorePending(rows);
+                    if (state.markQueued()) {
+                        dirtyCarts.add(state);
+                    }
+                } finally {
+                    state.unlock();
+                }
+            });
+            return;
+        }
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < inserts.size() && i < keys.size(); i++) {
+            PendingRow row = inserts.get(i);
+            Object key = keys.get(i).values().iterator().next();
+            row.state().lock();
+            try {
+                row.state().assignId(row.item().getProductId(),
+                        ((Number) key).longValue());
+            } finally {
+                row.state().unlock();
+            }
+        }
+        log.debug("Flushed {} carts ({} upserts, {} deletes)", changes.size(),
+                upserts.size(), deletes.size());
+    }
+
+    private void evictIdle() {
+        states.forEach((userId, state) -> {
+            if (state.idleNanos() < idleEvictionNanos) {
+                return;
+            }
+            state.lock();
+            try {
+                if (!state.isDirty() && state.idleNanos() >= idleEvictionNanos) {
+                    state.evict();
+                    states.remove(userId, state);
+                }
+            } finally {
+                state.unlock();
+            }
+        });
+    }
+
+    private CartState load(String username, UserIdentity identity) {
+        return transactionTemplate.execute(status -> {
+            Cart cart = cartRepository.findWithItemsByUserId(identity.userId())
+                                      .orElse(null);
+            if (cart == null) {
+                cart = cartRepository.save(Cart.builder()
+                                               .user(userRepository.getReferenceById(identity.userId()))
+                                               .build());
+                identityCache.cartCreated(username, identity, cart.getId());
+            }
+            return new CartState(cart.getId(), cart.getVersion(),
+                    cart.getItems());
+        });
+    }
+
+    private static void bindDetails(PreparedStatement ps, int offset,
+            CartItem item) throws SQLException {
+        ps.setInt(offset, item.getQuantity());
+        ps.setString(offset + 1, item.getProductTitle());
+        if (item.getProductPrice() != null) {
+            ps.setDouble(offset + 2, item.getProductPrice());
+        } else {
+            ps.setNull(offset + 2, Types.DOUBLE);
+        }
+        ps.setString(offset + 3, item.getProductThumbnail());
+    }
+
+    private record PendingRow(CartState state, CartItem item) {
+    }
+
+    private record InsertSetter(List<PendingRow> rows)
+            implements BatchPreparedStatementSetter {
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            PendingRow row = rows.get(i);
+            ps.setLong(1, row.state().getCartId());
+            ps.setInt(2, row.item().getProductId());
+            bindDetails(ps, 3, row.item());
+        }
+
+        @Override
+        public int getBatchSize() {
+            return rows.size();
+        }
+    }
+}
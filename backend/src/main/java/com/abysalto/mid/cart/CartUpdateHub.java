@@ -0,0 +1,289 @@
+package com.abysalto.mid.cart;
+
+import com.abysalto.mid.dto.response.CartDelta;
+import com.abysalto.mid.dto.response.CartDto;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Fans committed cart changes out to the user's open
+ * {@code GET /api/cart/stream} connections. An idle connection is an
+ * {@link SseEmitter} parked in an async request and holds no thread;
+ * events are written by a small shared sender pool.
+ * <p>
+ * Each subscriber has a bounded buffer. A client that falls more than
+ * {@code buffer-size} events behind has its backlog replaced by one
+ * {@code resync} event telling it to reload the cart, so a slow reader
+ * costs neither memory nor more than one sender thread at a time. The same
+ * happens when deltas of one user arrive out of version order.
+ */
+@Slf4j
+@Component
+public class CartUpdateHub {
+
+    static final String SNAPSHOT = "snapshot";
+    static final String DELTA = "delta";
+    static final String RESYNC = "resync";
+
+    private static final Set<DataWithMediaType> RESYNC_EVENT =
+            SseEmitter.event().name(RESYNC).data("{}").build();
+    private static final Set<DataWithMediaType> HEARTBEAT =
+            SseEmitter.event().comment("").build();
+
+    private final JsonMapper jsonMapper;
+    private final int bufferSize;
+    private final int maxConnectionsPerUser;
+    private final long timeoutMillis;
+    private final ExecutorService sender;
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+
+    public CartUpdateHub(JsonMapper jsonMapper,
+            @Value("${app.cart.stream.buffer-size}") int bufferSize,
+            @Value("${app.cart.stream.max-connections-per-user}") int maxConnectionsPerUser,
+            @Value("${app.cart.stream.timeout}") Duration timeout,
+            @Value("${app.cart.stream.send-threads}") int sendThreads) {
+        this.jsonMapper = jsonMapper;
+        this.bufferSize = bufferSize;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.timeoutMillis = timeout.toMillis();
+        this.sender = Executors.newFixedThreadPool(sendThreads,
+                new CustomizableThreadFactory("cart-stream-send-"));
+    }
+
+    /**
+     * Opens a stream for {@code username} that starts with the cart from
+     * {@code snapshot}. The subscriber is registered before the snapshot is
+     * read, so no change committed in between is lost; deltas the snapshot
+     * already contains carry a version the client ignores.
+     */
+    public SseEmitter subscribe(String username, Supplier<CartDto> snapshot) {
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(username, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        Subscriber[] evicted = new Subscriber[1];
+        topics.compute(username, (key, topic) -> {
+            Topic target = topic != null ? topic : new Topic();
+            synchronized (target) {
+                target.subscribers.add(subscriber);
+                if (target.subscribers.size() > maxConnectionsPerUser) {
+                    evicted[0] = target.subscribers.remove(0);
+                }
+            }
+            return target;
+        });
+        if (evicted[0] != null) {
+            evicted[0].close();
+            evicted[0].emitter.complete();
+        }
+
+        try {
+            subscriber.offer(event(SNAPSHOT, snapshot.get()));
+        } catch (RuntimeException e) {
+            subscriber.close();
+            throw e;
+        }
+        return emitter;
+    }
+
+    /** Runs after the mutating transaction commits, or at once without one. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartChanged(CartChangedEvent event) {
+        Topic topic = topics.get(event.username());
+        if (topic == null) {
+            return;
+        }
+        CartDelta delta = event.delta();
+        List<Subscriber> targets;
+        boolean inOrder;
+        synchronized (topic) {
+            inOrder = delta.version() == null || delta.version() > topic.lastVersion;
+            if (inOrder && delta.version() != null) {
+                topic.lastVersion = delta.version();
+            }
+            targets = List.copyOf(topic.subscribers);
+        }
+        if (targets.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> payload = inOrder ? event(DELTA, delta) : RESYNC_EVENT;
+        for (Subscriber subscriber : targets) {
+            subscriber.offer(payload);
+        }
+    }
+
+    /** Keeps idle connections open through proxies and detects dead clients. */
+    @Scheduled(fixedDelayString = "${app.cart.stream.heartbeat-interval}")
+    public void heartbeat() {
+        for (Topic topic : topics.values()) {
+            List<Subscriber> subscribers;
+            synchronized (topic) {
+                subscribers = List.copyOf(topic.subscribers);
+            }
+            subscribers.forEach(Subscriber::offerHeartbeat);
+        }
+    }
+
+    int connectionCount() {
+        int count = 0;
+        for (Topic topic : topics.values()) {
+            synchronized (topic) {
+                count += topic.subscribers.size();
+            }
+        }
+        return count;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        List<Subscriber> open = new ArrayList<>();
+        for (Topic topic : topics.values()) {
+            synchronized (topic) {
+                open.addAll(topic.subscribers);
+            }
+        }
+        open.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private Set<DataWithMediaType> event(String name, Object data) {
+        // Serialized once and shared by every connection of the user
+        return SseEmitter.event().name(name)
+                         .data(jsonMapper.writeValueAsString(data)).build();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        topics.computeIfPresent(subscriber.username, (key, topic) -> {
+            synchronized (topic) {
+                topic.subscribers.remove(subscriber);
+                return topic.subscribers.isEmpty() ? null : topic;
+            }
+        });
+    }
+
+    /** Open connections of one user; guarded by its own monitor. */
+    private static final class Topic {
+        private final List<Subscriber> subscribers = new ArrayList<>(1);
+        private long lastVersion;
+    }
+
+    private final class Subscriber implements Runnable {
+        private final String username;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Set<DataWithMediaType>> buffer = new ArrayDeque<>();
+        private boolean overflowed;
+        private boolean scheduled;
+        private boolean closed;
+
+        private Subscriber(String username, SseEmitter emitter) {
+            this.username = username;
+            this.emitter = emitter;
+        }
+
+        void offer(Set<DataWithMediaType> event) {
+            synchronized (this) {
+                if (closed || overflowed) {
+                    // A pending resync already covers anything dropped here
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    buffer.clear();
+                    overflowed = true;
+                } else {
+                    buffer.add(event);
+                }
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            schedule();
+        }
+
+        void offerHeartbeat() {
+            synchronized (this) {
+                if (closed || scheduled) {
+                    return;
+                }
+                buffer.add(HEARTBEAT);
+                scheduled = true;
+            }
+            schedule();
+        }
+
+        /** Drains the buffer; at most one drain runs per subscriber. */
+        @Override
+        public void run() {
+            while (true) {
+                Set<DataWithMediaType> next;
+                synchronized (this) {
+                    if (closed) {
+                        scheduled = false;
+                        return;
+                    }
+                    if (overflowed) {
+                        overflowed = false;
+                        next = RESYNC_EVENT;
+                    } else {
+                        next = buffer.poll();
+                        if (next == null) {
+                            scheduled = false;
+                            return;
+                        }
+                    }
+                }
+                try {
+                    emitter.send(next);
+                } catch (IOException | IllegalStateException e) {
+                    // The container reports the broken connection through
+                    // onError/onCompletion; just stop writing to it.
+                    log.debug("Cart stream of {} closed: {}", username, e.getMessage());
+                    close();
+                    return;
+                }
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+                buffer.clear();
+            }
+            unsubscribe(this);
+        }
+
+        private void schedule() {
+            try {
+                sender.execute(this);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+    }
+}
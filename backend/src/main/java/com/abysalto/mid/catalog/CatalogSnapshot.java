@@ -0,0 +1,9 @@
+package com.abysalto.mid.catalog;
+
+import com.abysalto.mid.dto.response.CategoryDto;
+import com.abysalto.mid.dto.response.ProductDto;
+
+import java.util.List;
+
+record CatalogSnapshot(List<ProductDto> products, List<CategoryDto> categories) {
+}
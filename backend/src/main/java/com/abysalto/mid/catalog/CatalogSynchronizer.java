@@ -0,0 +1,150 @@
+package com.abysalto.mid.catalog;
+
+import com.abysalto.mid.client.DummyJsonClient;
+import com.abysalto.mid.dto.response.CategoryDto;
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.ProductPageDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps {@link ProductCatalog} in step with DummyJSON. On startup the last
+ * persisted snapshot is loaded so products can be served immediately, then a
+ * full sync runs. Later refreshes walk the catalog page by page, keep every
+ * unchanged product instance and only publish a new version (and rewrite the
+ * snapshot file) when something actually changed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.catalog.enabled", havingValue = "true")
+public class CatalogSynchronizer {
+
+    private final DummyJsonClient dummyJsonClient;
+    private final ProductCatalog productCatalog;
+    private final JsonMapper jsonMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    @Value("${app.catalog.page-size}")
+    private int pageSize;
+
+    @Value("${app.catalog.snapshot-path}")
+    private Path snapshotPath;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loadSnapshot();
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.refresh-interval}",
+            initialDelayString = "${app.catalog.refresh-interval}")
+    public void refresh() {
+        try {
+            synchronize();
+        } catch (RuntimeException e) {
+            log.warn("Catalog sync failed, keeping current version: {}",
+                    e.getMessage());
+        }
+    }
+
+    void synchronize() {
+        // A lock rather than a synchronized method: the sync blocks on
+        // upstream I/O, which would pin the carrier of a virtual thread.
+        syncLock.lock();
+        try {
+            doSynchronize();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void doSynchronize() {
+        Map<Integer, ProductDto> current = new HashMap<>();
+        productCatalog.products().forEach(p -> current.put(p.id(), p));
+
+        List<ProductDto> fetched = new ArrayList<>(current.size());
+        int changed = 0;
+        ProductPageDto page;
+        do {
+            page = dummyJsonClient.get(
+                    "/products?limit=" + pageSize + "&skip=" + fetched.size(),
+                    ProductPageDto.class);
+            for (ProductDto product : page.products()) {
+                ProductDto existing = current.get(product.id());
+                if (product.equals(existing)) {
+                    fetched.add(existing);
+                } else {
+                    fetched.add(product);
+                    changed++;
+                }
+            }
+        } while (!page.products().isEmpty() && fetched.size() < page.total());
+
+        List<CategoryDto> categories = List.of(dummyJsonClient.get(
+                "/products/categories", CategoryDto[].class));
+        if (changed == 0 && fetched.size() == current.size()
+                && productCatalog.isLoaded()
+                && categories.equals(productCatalog.categories())) {
+            log.debug("Catalog unchanged ({} products)", fetched.size());
+            return;
+        }
+
+        productCatalog.replace(fetched, categories);
+        eventPublisher.publishEvent(new CatalogUpdatedEvent(fetched.size()));
+        writeSnapshot(new CatalogSnapshot(fetched, categories));
+        log.info("Catalog synchronized: {} products, {} new or changed",
+                fetched.size(), changed);
+    }
+
+    private void loadSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        try {
+            CatalogSnapshot snapshot = jsonMapper.readValue(
+                    snapshotPath.toFile(), CatalogSnapshot.class);
+            productCatalog.replace(snapshot.products(), snapshot.categories());
+            eventPublisher.publishEvent(
+                    new CatalogUpdatedEvent(snapshot.products().size()));
+            log.info("Loaded catalog snapshot with {} products",
+                    snapshot.products().size());
+        } catch (RuntimeException e) {
+            log.warn("Ignoring unreadable catalog snapshot {}: {}", snapshotPath,
+                    e.getMessage());
+        }
+    }
+
+    private void writeSnapshot(CatalogSnapshot snapshot) {
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, "catalog", ".json");
+            jsonMapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not persist catalog snapshot to {}: {}", snapshotPath,
+                    e.getMessage());
+        }
+    }
+}
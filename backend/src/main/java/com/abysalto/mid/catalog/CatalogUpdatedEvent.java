@@ -0,0 +1,4 @@
+package com.abysalto.mid.catalog;
+
+public record CatalogUpdatedEvent(int productCount) {
+}
@@ -0,0 +1,253 @@
+package com.abysalto.mid.catalog;
+
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.ProductPageDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Every listing order of one catalog version, precomputed: for each sort
+ * field, the positions of all products, and of each category's products,
+ * in ascending order with ties broken by id. A page in either direction
+ * is a slice of one {@code int[]}, so its cost depends on the page size
+ * only.
+ * <p>
+ * Besides offsets, pages can be addressed by an opaque keyset cursor
+ * holding the sort value and id of the last product returned. The next
+ * page starts right after that key even when a catalog refresh has added
+ * or removed products in between, which offsets cannot guarantee.
+ */
+final class ListingIndex {
+
+    private static final Base64.Encoder CURSOR_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder CURSOR_DECODER = Base64.getUrlDecoder();
+
+    private final List<ProductDto> products;
+    private final Map<Field, int[]> all;
+    private final Map<String, Map<Field, int[]>> byCategory;
+
+    private ListingIndex(List<ProductDto> products, Map<Field, int[]> all,
+            Map<String, Map<Field, int[]>> byCategory) {
+        this.products = products;
+        this.all = all;
+        this.byCategory = byCategory;
+    }
+
+    /** Indexes {@code products}, which must be in id order. */
+    static ListingIndex build(List<ProductDto> products) {
+        Map<String, Integer> categoryIds = new HashMap<>();
+        List<String> categoryNames = new ArrayList<>();
+        int[] categoryOf = new int[products.size()];
+        int[] categorySizes = new int[products.size()];
+        for (int i = 0; i < products.size(); i++) {
+            String category = String.valueOf(products.get(i).category());
+            int id = categoryIds.computeIfAbsent(category, c -> {
+                categoryNames.add(c);
+                return categoryNames.size() - 1;
+            });
+            categoryOf[i] = id;
+            categorySizes[id]++;
+        }
+
+        Map<Field, int[]> all = new EnumMap<>(Field.class);
+        Map<String, Map<Field, int[]>> byCategory = new HashMap<>();
+        for (String category : categoryNames) {
+            byCategory.put(category, new EnumMap<>(Field.class));
+        }
+        for (Field field : Field.values()) {
+            int[] order = sort(products, field);
+            all.put(field, order);
+            // Each category's order is the global order filtered, so only
+            // the global arrays need a comparison sort.
+            int[][] perCategory = new int[categoryNames.size()][];
+            int[] filled = new int[categoryNames.size()];
+            for (int c = 0; c < perCategory.length; c++) {
+                perCategory[c] = new int[categorySizes[c]];
+            }
+            for (int position : order) {
+                int c = categoryOf[position];
+                perCategory[c][filled[c]++] = position;
+            }
+            for (int c = 0; c < perCategory.length; c++) {
+                byCategory.get(categoryNames.get(c)).put(field, perCategory[c]);
+            }
+        }
+        return new ListingIndex(products, all, byCategory);
+    }
+
+    ProductPageDto list(int limit, int skip, String sortBy, String order,
+            String cursor) {
+        return page(all.get(Field.of(sortBy)), limit, skip, sortBy, order, cursor);
+    }
+
+    ProductPageDto listByCategory(String category, int limit, int skip,
+            String sortBy, String order, String cursor) {
+        Map<Field, int[]> orders = byCategory.get(category);
+        int[] positions = orders != null ? orders.get(Field.of(sortBy)) : new int[0];
+        return page(positions, limit, skip, sortBy, order, cursor);
+    }
+
+    static Comparator<ProductDto> comparator(String sortBy) {
+        return Field.of(sortBy)::compare;
+    }
+
+    private ProductPageDto page(int[] positions, int limit, int skip,
+            String sortBy, String order, String cursor) {
+        Field field = Field.of(sortBy);
+        boolean descending = "desc".equalsIgnoreCase(order);
+        int size = positions.length;
+        // Offsets count in the requested direction; a descending page
+        // walks the ascending array from the end.
+        int from = cursor == null ? Math.min(Math.max(skip, 0), size)
+                : seek(positions, field, descending, cursor);
+        int to = limit <= 0 ? size : (int) Math.min((long) from + limit, size);
+        List<ProductDto> slice = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            slice.add(products.get(positions[descending ? size - 1 - i : i]));
+        }
+        String next = to < size && !slice.isEmpty()
+                ? encode(field, descending, slice.get(slice.size() - 1)) : null;
+        return new ProductPageDto(slice, size, from, slice.size(), next);
+    }
+
+    /** Offset, in listing direction, of the first product after the cursor key. */
+    private int seek(int[] positions, Field field, boolean descending, String cursor) {
+        String[] parts;
+        try {
+            parts = new String(CURSOR_DECODER.decode(cursor), StandardCharsets.UTF_8)
+                    .split("\n", 3);
+        } catch (IllegalArgumentException e) {
+            parts = new String[0];
+        }
+        if (parts.length != 3 || !parts[0].equals(field.header(descending))) {
+            throw new IllegalArgumentException("Invalid cursor for this sort order");
+        }
+        int id;
+        try {
+            id = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor for this sort order");
+        }
+        String value = parts[2].isEmpty() ? null : parts[2].substring(1);
+
+        // First ascending index whose key is greater (ascending) or not
+        // smaller (descending) than the cursor key.
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int c = field.compareTo(products.get(positions[mid]), value, id);
+            if (c < 0 || (c == 0 && !descending)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return descending ? positions.length - low : low;
+    }
+
+    private static String encode(Field field, boolean descending, ProductDto last) {
+        String value = field.value(last);
+        String key = field.header(descending) + "\n" + last.id() + "\n"
+                + (value == null ? "" : "=" + value);
+        return CURSOR_ENCODER.encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int[] sort(List<ProductDto> products, Field field) {
+        Integer[] boxed = new Integer[products.size()];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (a, b) -> field.compare(products.get(a), products.get(b)));
+        int[] positions = new int[boxed.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = boxed[i];
+        }
+        return positions;
+    }
+
+    /**
+     * A sortable product field. Text sorts case-insensitively with missing
+     * values last; every order falls back to the id.
+     */
+    private enum Field {
+        ID("id", null, ProductDto::id),
+        TITLE("title", ProductDto::title, null),
+        BRAND("brand", ProductDto::brand, null),
+        CATEGORY("category", ProductDto::category, null),
+        PRICE("price", null, ProductDto::price),
+        RATING("rating", null, ProductDto::rating),
+        DISCOUNT_PERCENTAGE("discountPercentage", null, ProductDto::discountPercentage),
+        STOCK("stock", null, ProductDto::stock);
+
+        private static final Map<String, Field> BY_NAME = new HashMap<>();
+
+        static {
+            for (Field field : values()) {
+                BY_NAME.put(field.name, field);
+            }
+        }
+
+        private final String name;
+        private final Function<ProductDto, String> text;
+        private final ToDoubleFunction<ProductDto> number;
+
+        Field(String name, Function<ProductDto, String> text,
+                ToDoubleFunction<ProductDto> number) {
+            this.name = name;
+            this.text = text;
+            this.number = number;
+        }
+
+        /** Unknown or missing fields list in id order. */
+        static Field of(String sortBy) {
+            return sortBy == null ? ID : BY_NAME.getOrDefault(sortBy, ID);
+        }
+
+        int compare(ProductDto a, ProductDto b) {
+            int c = text != null ? compareText(text.apply(a), text.apply(b))
+                    : Double.compare(number.applyAsDouble(a), number.applyAsDouble(b));
+            return c != 0 ? c : Integer.compare(a.id(), b.id());
+        }
+
+        /** Compares {@code product} with the cursor key {@code (value, id)}. */
+        int compareTo(ProductDto product, String value, int id) {
+            int c;
+            if (text != null) {
+                c = compareText(text.apply(product), value);
+            } else {
+                c = this == ID ? 0 : Double.compare(number.applyAsDouble(product),
+                        value == null ? 0 : Double.parseDouble(value));
+            }
+            return c != 0 ? c : Integer.compare(product.id(), id);
+        }
+
+        private static int compareText(String a, String b) {
+            if (a == null || b == null) {
+                return a == b ? 0 : a == null ? 1 : -1;
+            }
+            return String.CASE_INSENSITIVE_ORDER.compare(a, b);
+        }
+
+        String value(ProductDto product) {
+            if (text != null) {
+                return text.apply(product);
+            }
+            return this == ID ? null : Double.toString(number.applyAsDouble(product));
+        }
+
+        String header(boolean descending) {
+            return name + (descending ? ",desc" : ",asc");
+        }
+    }
+}
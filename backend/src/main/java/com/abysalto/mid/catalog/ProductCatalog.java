@@ -0,0 +1,124 @@
+package com.abysalto.mid.catalog;
+
+import com.abysalto.mid.dto.response.CategoryDto;
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.ProductPageDto;
+import com.abysalto.mid.dto.response.SuggestionDto;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Local, read-only replica of the DummyJSON product catalog. The whole
+ * catalog is swapped atomically by {@link CatalogSynchronizer}, so readers
+ * always see one consistent version without locking.
+ */
+@Component
+public class ProductCatalog {
+
+    private volatile Snapshot snapshot;
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    public Optional<ProductDto> findById(Integer id) {
+        return Optional.ofNullable(snapshot.byId.get(id));
+    }
+
+    public List<CategoryDto> getCategories() {
+        return snapshot.categories;
+    }
+
+    /**
+     * Lists products, optionally filtered by {@code search}. Search results
+     * are ranked by relevance unless a field other than {@code id} is given
+     * as {@code sortBy}. Plain listings are slices of a pre-sorted index and
+     * can be resumed from the {@code cursor} of a previous page instead of
+     * {@code skip}; search results cannot.
+     */
+    public ProductPageDto list(int limit, int skip, String sortBy,
+            String order, String search, String cursor) {
+        if (search == null || search.isBlank()) {
+            return snapshot.listings.list(limit, skip, sortBy, order, cursor);
+        }
+        if (cursor != null) {
+            throw new IllegalArgumentException("Search results are paged by skip, not cursor");
+        }
+        List<ProductDto> products = snapshot.searchIndex.search(search);
+        boolean ranked = sortBy == null || "id".equals(sortBy) || "relevance".equals(sortBy);
+        if (!ranked) {
+            products = new ArrayList<>(products);
+            products.sort(ListingIndex.comparator(sortBy));
+            if ("desc".equalsIgnoreCase(order)) {
+                Collections.reverse(products);
+            }
+        }
+        return page(products, limit, skip);
+    }
+
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return snapshot.suggestions.suggest(prefix, limit);
+    }
+
+    public ProductPageDto listByCategory(String category, int limit, int skip,
+            String sortBy, String order, String cursor) {
+        return snapshot.listings.listByCategory(category, limit, skip, sortBy,
+                order, cursor);
+    }
+
+    /**
+     * All products of the current version, ordered by id; empty until the
+     * first sync or snapshot load.
+     */
+    public List<ProductDto> products() {
+        return snapshot == null ? List.of() : snapshot.products;
+    }
+
+    List<CategoryDto> categories() {
+        return snapshot == null ? null : snapshot.categories;
+    }
+
+    void replace(List<ProductDto> products, List<CategoryDto> categories) {
+        snapshot = new Snapshot(products, categories, snapshot);
+    }
+
+    private static ProductPageDto page(List<ProductDto> products, int limit,
+            int skip) {
+        int from = Math.min(Math.max(skip, 0), products.size());
+        int to = limit <= 0 ? products.size()
+                : (int) Math.min((long) from + limit, products.size());
+        List<ProductDto> slice = products.subList(from, to);
+        return new ProductPageDto(slice, products.size(), from, slice.size());
+    }
+
+    private static final class Snapshot {
+        private final List<ProductDto> products;
+        private final Map<Integer, ProductDto> byId;
+        private final ListingIndex listings;
+        private final List<CategoryDto> categories;
+        private final SearchIndex searchIndex;
+        private final SuggestionIndex suggestions;
+
+        private Snapshot(List<ProductDto> products, List<CategoryDto> categories,
+                Snapshot previous) {
+            List<ProductDto> sorted = new ArrayList<>(products);
+            sorted.sort(Comparator.comparingInt(ProductDto::id));
+            this.products = List.copyOf(sorted);
+            this.byId = sorted.stream().collect(Collectors.toUnmodifiableMap(
+                    ProductDto::id, Function.identity()));
+            this.listings = ListingIndex.build(this.products);
+            this.categories = categories != null ? List.copyOf(categories) : List.of();
+            this.searchIndex = SearchIndex.build(this.products,
+                    previous != null ? previous.searchIndex : null);
+            this.suggestions = SuggestionIndex.build(this.products);
+        }
+    }
+}
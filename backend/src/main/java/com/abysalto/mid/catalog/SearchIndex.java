@@ -0,0 +1,196 @@
+package com.abysalto.mid.catalog;
+
+import com.abysalto.mid.dto.response.ProductDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over product title, brand, category and description for
+ * one catalog version. Terms are matched as token prefixes, so partial
+ * words typed into a search box already hit; every query term has to
+ * match. Results are ranked by a weighted score: the field a token was
+ * found in, and whether the term matched the whole token or only its
+ * start.
+ * <p>
+ * Tokenizing dominates the build, so a rebuild reuses the token lists of
+ * products that are carried over unchanged (same instance) from the
+ * previous catalog version.
+ */
+final class SearchIndex {
+
+    private static final int TITLE = 1;
+    private static final int BRAND = 2;
+    private static final int CATEGORY = 4;
+    private static final int DESCRIPTION = 8;
+
+    /** Sorted vocabulary; {@code postings[i]} lists the products containing {@code terms[i]}. */
+    private final String[] terms;
+    private final int[][] postings;
+    /** Field bit mask per posting, parallel to {@link #postings}. */
+    private final byte[][] fields;
+    private final List<ProductDto> products;
+    private final Map<ProductDto, Document> documents;
+
+    private SearchIndex(String[] terms, int[][] postings, byte[][] fields,
+            List<ProductDto> products, Map<ProductDto, Document> documents) {
+        this.terms = terms;
+        this.postings = postings;
+        this.fields = fields;
+        this.products = products;
+        this.documents = documents;
+    }
+
+    /**
+     * Indexes {@code products}, taking unchanged documents from
+     * {@code previous} when given.
+     */
+    static SearchIndex build(List<ProductDto> products, SearchIndex previous) {
+        Map<ProductDto, Document> documents = new IdentityHashMap<>(products.size());
+        TreeMap<String, List<int[]>> inverted = new TreeMap<>();
+        for (int doc = 0; doc < products.size(); doc++) {
+            ProductDto product = products.get(doc);
+            Document document = previous != null ? previous.documents.get(product) : null;
+            if (document == null) {
+                document = Document.of(product);
+            }
+            documents.put(product, document);
+            for (int i = 0; i < document.tokens.length; i++) {
+                inverted.computeIfAbsent(document.tokens[i], t -> new ArrayList<>())
+                        .add(new int[] {doc, document.fields[i]});
+            }
+        }
+
+        String[] terms = new String[inverted.size()];
+        int[][] postings = new int[terms.length][];
+        byte[][] fields = new byte[terms.length][];
+        int t = 0;
+        for (Map.Entry<String, List<int[]>> entry : inverted.entrySet()) {
+            List<int[]> list = entry.getValue();
+            terms[t] = entry.getKey();
+            postings[t] = new int[list.size()];
+            fields[t] = new byte[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                postings[t][i] = list.get(i)[0];
+                fields[t][i] = (byte) list.get(i)[1];
+            }
+            t++;
+        }
+        return new SearchIndex(terms, postings, fields, List.copyOf(products), documents);
+    }
+
+    /**
+     * Products matching every term of {@code query}, best match first;
+     * ties keep catalog (id) order.
+     */
+    List<ProductDto> search(String query) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            return products;
+        }
+        int[] scores = new int[products.size()];
+        int[] matchedTerms = new int[products.size()];
+        for (int q = 0; q < queryTerms.size(); q++) {
+            String term = queryTerms.get(q);
+            int[] best = new int[products.size()];
+            for (int t = lowerBound(term); t < terms.length && terms[t].startsWith(term); t++) {
+                boolean whole = terms[t].length() == term.length();
+                for (int i = 0; i < postings[t].length; i++) {
+                    int doc = postings[t][i];
+                    best[doc] = Math.max(best[doc], score(fields[t][i], whole));
+                }
+            }
+            for (int doc = 0; doc < best.length; doc++) {
+                if (best[doc] > 0 && matchedTerms[doc] == q) {
+                    matchedTerms[doc]++;
+                    scores[doc] += best[doc];
+                }
+            }
+        }
+
+        int matches = 0;
+        for (int doc = 0; doc < scores.length; doc++) {
+            if (matchedTerms[doc] == queryTerms.size()) {
+                matches++;
+            }
+        }
+        // Sort by score descending, then document (id) order, packed into
+        // one long per hit so ranking is a single primitive sort.
+        long[] ranked = new long[matches];
+        int n = 0;
+        for (int doc = 0; doc < scores.length; doc++) {
+            if (matchedTerms[doc] == queryTerms.size()) {
+                ranked[n++] = ((long) (Integer.MAX_VALUE - scores[doc]) << 32) | doc;
+            }
+        }
+        Arrays.sort(ranked);
+        List<ProductDto> result = new ArrayList<>(matches);
+        for (long hit : ranked) {
+            result.add(products.get((int) hit));
+        }
+        return result;
+    }
+
+    private int lowerBound(String term) {
+        int index = Arrays.binarySearch(terms, term);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int score(int fieldMask, boolean whole) {
+        int weight = (fieldMask & TITLE) != 0 ? 8
+                : (fieldMask & BRAND) != 0 ? 4
+                : (fieldMask & CATEGORY) != 0 ? 2 : 1;
+        return whole ? weight * 2 : weight;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean word = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /** Distinct tokens of one product with the fields each occurs in. */
+    private record Document(String[] tokens, byte[] fields) {
+
+        static Document of(ProductDto product) {
+            Map<String, Integer> masks = new LinkedHashMap<>();
+            add(masks, product.title(), TITLE);
+            add(masks, product.brand(), BRAND);
+            add(masks, product.category(), CATEGORY);
+            add(masks, product.description(), DESCRIPTION);
+            String[] tokens = new String[masks.size()];
+            byte[] fields = new byte[masks.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : masks.entrySet()) {
+                tokens[i] = entry.getKey().intern();
+                fields[i++] = entry.getValue().byteValue();
+            }
+            return new Document(tokens, fields);
+        }
+
+        private static void add(Map<String, Integer> masks, String text, int field) {
+            for (String token : tokenize(text)) {
+                masks.merge(token, field, (a, b) -> a | b);
+            }
+        }
+    }
+}
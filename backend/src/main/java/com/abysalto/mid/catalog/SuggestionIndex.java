@@ -0,0 +1,206 @@
+package com.abysalto.mid.catalog;
+
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.SuggestionDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Type-ahead over product titles and brands. Every suggestion is keyed by
+ * each of its word starts ("iPhone 13 Pro" under "iphone 13 pro", "13 pro"
+ * and "pro"), and the lowercase keys are kept in one sorted array, so the
+ * keys matching a prefix are a contiguous range.
+ * <p>
+ * Ranges longer than {@value #SCAN_LIMIT} keys are the nodes of a trie
+ * materialized only where it pays: each such prefix stores its top
+ * {@value #MAX_SUGGESTIONS} suggestions, merged bottom-up from its
+ * children at build time. Any other prefix is answered by scanning at most
+ * {@value #SCAN_LIMIT} keys, so a lookup never depends on catalog size.
+ * <p>
+ * Popularity is the product rating for titles and the summed rating of a
+ * brand's products for brands; ties go to the shorter text.
+ */
+public final class SuggestionIndex {
+
+    public static final int MAX_SUGGESTIONS = 10;
+
+    private static final int SCAN_LIMIT = 64;
+    private static final int[] NONE = new int[0];
+
+    /** Sorted lowercase keys and, per key, the suggestion it leads to. */
+    private final String[] keys;
+    private final int[] targets;
+    /** Suggestions in popularity order, so a lower index ranks higher. */
+    private final SuggestionDto[] suggestions;
+    private final Map<String, int[]> topByPrefix = new HashMap<>();
+
+    private SuggestionIndex(String[] keys, int[] targets, SuggestionDto[] suggestions) {
+        this.keys = keys;
+        this.targets = targets;
+        this.suggestions = suggestions;
+        if (keys.length > SCAN_LIMIT) {
+            collect(0, keys.length, 0);
+        }
+    }
+
+    public static SuggestionIndex build(List<ProductDto> products) {
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+        Map<String, Candidate> brands = new HashMap<>();
+        for (ProductDto product : products) {
+            long score = Math.round(product.rating() * 100);
+            if (product.title() != null && !product.title().isBlank()) {
+                candidates.merge(product.title().toLowerCase(Locale.ROOT),
+                        new Candidate(new SuggestionDto(product.title(), "product", product.id()), score),
+                        (a, b) -> a.score >= b.score ? a : b);
+            }
+            if (product.brand() != null && !product.brand().isBlank()) {
+                brands.computeIfAbsent(product.brand().toLowerCase(Locale.ROOT),
+                        k -> new Candidate(new SuggestionDto(product.brand(), "brand", null), 0))
+                      .score += score;
+            }
+        }
+        brands.forEach((key, brand) -> candidates.merge(key, brand,
+                (a, b) -> a.score >= b.score ? a : b));
+
+        List<Candidate> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(Comparator.comparingLong((Candidate c) -> -c.score)
+                              .thenComparingInt(c -> c.suggestion.text().length())
+                              .thenComparing(c -> c.suggestion.text()));
+        SuggestionDto[] suggestions = new SuggestionDto[ranked.size()];
+        List<Key> keyed = new ArrayList<>();
+        for (int i = 0; i < suggestions.length; i++) {
+            suggestions[i] = ranked.get(i).suggestion;
+            String text = suggestions[i].text().toLowerCase(Locale.ROOT);
+            for (int start = 0; start < text.length(); start++) {
+                if (Character.isLetterOrDigit(text.charAt(start))
+                        && (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1)))) {
+                    keyed.add(new Key(text.substring(start), i));
+                }
+            }
+        }
+        keyed.sort(Comparator.comparing(Key::key));
+        String[] keys = new String[keyed.size()];
+        int[] targets = new int[keyed.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = keyed.get(i).key();
+            targets[i] = keyed.get(i).target();
+        }
+        return new SuggestionIndex(keys, targets, suggestions);
+    }
+
+    /**
+     * Up to {@code limit} (at most {@value #MAX_SUGGESTIONS}) suggestions
+     * with a word starting with {@code prefix}, most popular first.
+     */
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        String normalized = prefix == null ? "" : prefix.strip().toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int[] top = topByPrefix.get(normalized);
+        if (top == null) {
+            int from = lowerBound(normalized);
+            int to = from;
+            while (to < keys.length && keys[to].startsWith(normalized)) {
+                to++;
+            }
+            top = scan(from, to);
+        }
+        int size = Math.min(Math.min(limit, MAX_SUGGESTIONS), top.length);
+        List<SuggestionDto> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(suggestions[top[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Top suggestions for {@code keys[from, to)}, which share their first
+     * {@code depth} characters; records every range too long to scan.
+     */
+    private int[] collect(int from, int to, int depth) {
+        if (to - from <= SCAN_LIMIT) {
+            return scan(from, to);
+        }
+        int i = from;
+        while (i < to && keys[i].length() == depth) {
+            i++;
+        }
+        int[] top = scan(from, i);
+        while (i < to) {
+            char c = keys[i].charAt(depth);
+            int end = i + 1;
+            while (end < to && keys[end].charAt(depth) == c) {
+                end++;
+            }
+            top = merge(top, collect(i, end, depth + 1));
+            i = end;
+        }
+        if (depth > 0) {
+            topByPrefix.put(keys[from].substring(0, depth), top);
+        }
+        return top;
+    }
+
+    private int[] scan(int from, int to) {
+        int[] top = new int[Math.min(MAX_SUGGESTIONS, to - from)];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            size = offer(top, size, targets[i]);
+        }
+        return size == top.length ? top : Arrays.copyOf(top, size);
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        int[] top = Arrays.copyOf(a, Math.min(MAX_SUGGESTIONS, a.length + b.length));
+        int size = a.length;
+        for (int candidate : b) {
+            size = offer(top, size, candidate);
+        }
+        return size == top.length ? top : Arrays.copyOf(top, size);
+    }
+
+    /** Inserts {@code candidate} into the ascending, distinct {@code top[0, size)}. */
+    private static int offer(int[] top, int size, int candidate) {
+        int position = Arrays.binarySearch(top, 0, size, candidate);
+        if (position >= 0) {
+            return size;
+        }
+        position = -position - 1;
+        if (position >= top.length) {
+            return size;
+        }
+        int kept = Math.min(size, top.length - 1);
+        System.arraycopy(top, position, top, position + 1, kept - position);
+        top[position] = candidate;
+        return kept + 1;
+    }
+
+    private int lowerBound(String prefix) {
+        int index = Arrays.binarySearch(keys, prefix);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static final class Candidate {
+        private final SuggestionDto suggestion;
+        private long score;
+
+        private Candidate(SuggestionDto suggestion, long score) {
+            this.suggestion = suggestion;
+            this.score = score;
+        }
+    }
+
+    private record Key(String key, int target) {
+    }
+}
@@ -0,0 +1,168 @@
+package com.abysalto.mid.client;
+
+import com.abysalto.mid.exception.ResourceNotFoundException;
+import com.abysalto.mid.exception.UpstreamUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thin client for the DummyJSON API. Concurrent requests for the same URI are
+ * coalesced: the first caller performs the upstream call and every caller that
+ * arrives while it is in flight receives the same result.
+ * <p>
+ * Upstream calls are guarded by a circuit breaker and a bulkhead that caps
+ * concurrent calls, so a slow DummyJSON cannot tie up every request thread.
+ * Whenever a call is refused or fails, the last successful response for the
+ * same URI is served instead; that store has no TTL so it outlives every cache.
+ */
+@Slf4j
+@Component
+public class DummyJsonClient {
+
+    private final RestClient restClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitMillis;
+    private final Cache<String, Object> lastKnownGood;
+    private final Map<String, CompletableFuture<Object>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final LongAdder rejectedCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder staleResponses = new LongAdder();
+
+    public DummyJsonClient(RestClient dummyJsonRestClient,
+            CircuitBreaker dummyJsonCircuitBreaker,
+            @Value("${app.dummyjson.bulkhead.max-concurrent-calls}") int maxConcurrentCalls,
+            @Value("${app.dummyjson.bulkhead.max-wait}") Duration maxWait,
+            @Value("${app.dummyjson.last-known-good-size}") long lastKnownGoodSize) {
+        this.restClient = dummyJsonRestClient;
+        this.circuitBreaker = dummyJsonCircuitBreaker;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.bulkheadWaitMillis = maxWait.toMillis();
+        this.lastKnownGood = Caffeine.newBuilder()
+                                     .maximumSize(lastKnownGoodSize).build();
+    }
+
+    public <T> T get(String uri, Class<T> type) {
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(uri, call);
+        if (existing != null) {
+            return type.cast(await(existing));
+        }
+        try {
+            T body = fetch(uri, type);
+            call.complete(body);
+            return body;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(uri, call);
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public int getAvailableBulkheadPermits() {
+        return bulkhead.availablePermits();
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.sum();
+    }
+
+    public long getFailedCalls() {
+        return failedCalls.sum();
+    }
+
+    public long getStaleResponses() {
+        return staleResponses.sum();
+    }
+
+    private <T> T fetch(String uri, Class<T> type) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejectedCalls.increment();
+            return fallback(uri, type, "circuit open");
+        }
+        if (!acquireBulkhead()) {
+            circuitBreaker.releasePermission();
+            rejectedCalls.increment();
+            return fallback(uri, type, "too many concurrent upstream calls");
+        }
+        try {
+            log.info("Fetching {} from DummyJSON", uri);
+            T body = restClient.get().uri(uri).retrieve().body(type);
+            circuitBreaker.onSuccess();
+            if (body != null) {
+                lastKnownGood.put(uri, body);
+            }
+            return body;
+        } catch (HttpClientErrorException.NotFound e) {
+            circuitBreaker.onSuccess();
+            throw new ResourceNotFoundException("Product not found");
+        } catch (HttpClientErrorException e) {
+            circuitBreaker.onSuccess();
+            throw e;
+        } catch (RestClientException e) {
+            circuitBreaker.onFailure();
+            failedCalls.increment();
+            return fallback(uri, type, e.getMessage());
+        } catch (RuntimeException e) {
+            // Not an upstream outcome (e.g. a malformed URI): hand back a
+            // half-open probe permission so the circuit can still close
+            circuitBreaker.releasePermission();
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(bulkheadWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T> T fallback(String uri, Class<T> type, String reason) {
+        Object stale = lastKnownGood.getIfPresent(uri);
+        if (stale == null) {
+            throw new UpstreamUnavailableException(
+                    "Product service is temporarily unavailable");
+        }
+        log.warn("Serving last known good response for {} ({})", uri, reason);
+        staleResponses.increment();
+        return type.cast(stale);
+    }
+
+    private static Object await(CompletableFuture<Object> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.abysalto.mid.client;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class DummyJsonClientMetrics implements MeterBinder {
+
+    private final DummyJsonClient client;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CircuitBreaker.State state : CircuitBreaker.State.values()) {
+            Gauge.builder("dummyjson.circuit.state", client,
+                         c -> c.getCircuitBreaker().getState() == state ? 1 : 0)
+                 .tag("state", state.name().toLowerCase())
+                 .description("1 when the DummyJSON circuit breaker is in this state")
+                 .register(registry);
+        }
+        Gauge.builder("dummyjson.bulkhead.available", client,
+                     DummyJsonClient::getAvailableBulkheadPermits)
+             .description("Free slots for concurrent DummyJSON calls")
+             .register(registry);
+        FunctionCounter.builder("dummyjson.calls.rejected", client,
+                               DummyJsonClient::getRejectedCalls)
+                       .description("Calls refused by the circuit breaker or bulkhead")
+                       .register(registry);
+        FunctionCounter.builder("dummyjson.calls.failed", client,
+                               DummyJsonClient::getFailedCalls)
+                       .register(registry);
+        FunctionCounter.builder("dummyjson.responses.stale", client,
+                               DummyJsonClient::getStaleResponses)
+                       .description("Responses served from the last-known-good store")
+                       .register(registry);
+    }
+}
@@ -1,14 +1,56 @@
 package com.abysalto.mid.config;
 
+import com.abysalto.mid.client.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.client.RestClient;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
 
 @Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ProductCacheProperties.class)
 public class AppConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public CircuitBreaker dummyJsonCircuitBreaker(
+            @Value("${app.dummyjson.circuit-breaker.failure-threshold}") int failureThreshold,
+            @Value("${app.dummyjson.circuit-breaker.open-duration}") Duration openDuration) {
+        return new CircuitBreaker(failureThreshold, openDuration);
+    }
+
+    @Bean
+    public RestClient dummyJsonRestClient(
+            @Value("${app.dummyjson.base-url}") String baseUrl,
+            @Value("${app.dummyjson.connect-timeout}") Duration connectTimeout,
+            @Value("${app.dummyjson.read-timeout}") Duration readTimeout) {
+        // The JDK client keeps connections alive and negotiates HTTP/2 where
+        // the upstream supports it, falling back to pooled HTTP/1.1.
+        HttpClient httpClient = HttpClient.newBuilder()
+                                          .version(HttpClient.Version.HTTP_2)
+                                          .connectTimeout(connectTimeout)
+                                          .build();
+        JdkClientHttpRequestFactory requestFactory =
+                new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        // Upstream products occasionally omit numeric fields; default them
+        // instead of rejecting the whole page.
+        JsonMapper upstreamMapper = JsonMapper.builder()
+                                              .disable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+                                              .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                                              .build();
+        return RestClient.builder().baseUrl(baseUrl)
+                         .requestFactory(requestFactory)
+                         .configureMessageConverters(converters -> converters.registerDefaults().withJsonConverter(
+                                 new JacksonJsonHttpMessageConverter(upstreamMapper)))
+                         .build();
     }
 }
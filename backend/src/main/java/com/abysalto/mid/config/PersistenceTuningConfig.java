@@ -0,0 +1,36 @@
+package com.abysalto.mid.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("prod")
+public class PersistenceTuningConfig {
+
+    /**
+     * Sizes the Hikari pool to {@code app.datasource.pool-size}, or to
+     * 2 x cores + 1 when that is 0, as a fixed-size pool: requests beyond it
+     * queue in Hikari rather than adding connections MySQL cannot serve
+     * any faster.
+     */
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(
+            @Value("${app.datasource.pool-size}") int poolSize) {
+        int size = poolSize > 0 ? poolSize
+                : Runtime.getRuntime().availableProcessors() * 2 + 1;
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMaximumPoolSize(size);
+                    dataSource.setMinimumIdle(size);
+                }
+                return bean;
+            }
+        };
+    }
+}
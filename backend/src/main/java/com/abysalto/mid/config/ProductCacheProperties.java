@@ -0,0 +1,30 @@
+package com.abysalto.mid.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "app.products.cache")
+public record ProductCacheProperties(
+        int refreshThreads,
+        int refreshQueueCapacity,
+        Map<String, Policy> policies) {
+
+    /**
+     * Entries older than {@code refreshAfter} are still served while one
+     * background reload runs; entries older than {@code expireAfter} are
+     * dropped and reloaded on the caller's thread.
+     */
+    public record Policy(Duration refreshAfter, Duration expireAfter,
+            long maxBytes) {
+    }
+
+    public Policy policy(String cacheName) {
+        Policy policy = policies.get(cacheName);
+        if (policy == null) {
+            throw new IllegalStateException("No cache policy configured for " + cacheName);
+        }
+        return policy;
+    }
+}
@@ -0,0 +1,7 @@
+package com.abysalto.mid.constant;
+
+public enum CartOperationType {
+    ADD,
+    UPDATE,
+    REMOVE;
+}
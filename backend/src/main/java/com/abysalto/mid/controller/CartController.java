@@ -1,29 +1,70 @@
 package com.abysalto.mid.controller;
 
+import com.abysalto.mid.cart.CartUpdateHub;
 import com.abysalto.mid.dto.request.AddItem;
+import com.abysalto.mid.dto.request.CartBatch;
 import com.abysalto.mid.dto.request.UpdateQuantity;
 import com.abysalto.mid.dto.response.ApiResponse;
 import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.dto.response.CartVersion;
+import com.abysalto.mid.pricing.PriceIndex;
 import com.abysalto.mid.service.CartService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/cart")
 @RequiredArgsConstructor
 public class CartController {
 
+    private static final CacheControl REVALIDATE =
+            CacheControl.noCache().cachePrivate();
+
     private final CartService cartService;
+    private final CartUpdateHub cartUpdateHub;
+    private final PriceIndex priceIndex;
 
     @GetMapping
     public ResponseEntity<ApiResponse<CartDto>> getCart(
-            @AuthenticationPrincipal UserDetails userDetails) {
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Read before pricing the cart, so a concurrent rebuild can only make
+        // the tag older than the body and never the other way round
+        long prices = priceIndex.generation();
+        if (ifNoneMatch != null) {
+            Optional<CartVersion> version = cartService.getCartVersion(userDetails.getUsername());
+            if (version.isPresent() && version.get().matches(ifNoneMatch, prices)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                     .eTag(version.get().etag(prices))
+                                     .cacheControl(REVALIDATE).build();
+            }
+        }
         CartDto cart = cartService.getCart(userDetails.getUsername());
-        return ResponseEntity.ok(ApiResponse.success(cart));
+        return ResponseEntity.ok().eTag(CartVersion.of(cart).etag(prices))
+                             .cacheControl(REVALIDATE)
+                             .body(ApiResponse.success(cart));
+    }
+
+    /**
+     * Server-sent events for the user's cart: a {@code snapshot} on connect,
+     * then a {@code delta} per committed change, or {@code resync} when the
+     * client should reload the cart.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal UserDetails userDetails) {
+        String username = userDetails.getUsername();
+        return cartUpdateHub.subscribe(username, () -> cartService.getCart(username));
     }
 
     @PostMapping("/items")
@@ -55,6 +96,15 @@ public class CartController {
                 ApiResponse.success("Item removed from cart", cart));
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<CartDto>> applyBatch(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @Valid @RequestBody CartBatch request) {
+        CartDto cart =
+                cartService.applyBatch(userDetails.getUsername(), request);
+        return ResponseEntity.ok(ApiResponse.success("Cart updated", cart));
+    }
+
     @DeleteMapping
     public ResponseEntity<ApiResponse<Void>> clearCart(
             @AuthenticationPrincipal UserDetails userDetails) {
@@ -1,11 +1,17 @@
 package com.abysalto.mid.controller;
 
+import com.abysalto.mid.cache.RenderedResponseCache;
 import com.abysalto.mid.dto.response.ApiResponse;
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.SuggestionDto;
 import com.abysalto.mid.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -14,40 +20,78 @@ import java.util.Map;
 public class ProductController {
 
     private final ProductService productService;
+    private final RenderedResponseCache responseCache;
 
     @GetMapping
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getAllProducts(
+    public ResponseEntity<byte[]> getAllProducts(
             @RequestParam(defaultValue = "20") int limit,
             @RequestParam(defaultValue = "0") int skip,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String order,
-            @RequestParam(required = false) String search) {
-        Map<String, Object> products =
-                productService.getAllProducts(limit, skip, sortBy, order,
-                        search);
-        return ResponseEntity.ok(ApiResponse.success(products));
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String normalizedOrder = order.toLowerCase(Locale.ROOT);
+        String normalizedSearch = search == null || search.isBlank() ? ""
+                : search.trim().toLowerCase(Locale.ROOT);
+        String normalizedCursor = cursor == null || cursor.isBlank() ? null : cursor;
+        String key = RenderedResponseCache.key("products", limit, skip, sortBy,
+                normalizedOrder, normalizedSearch, normalizedCursor);
+        return responseCache.respond(key, acceptEncoding,
+                () -> ApiResponse.success(productService.getAllProducts(limit,
+                        skip, sortBy, normalizedOrder,
+                        normalizedSearch.isEmpty() ? null : normalizedSearch,
+                        normalizedCursor)));
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<ApiResponse<List<ProductDto>>> getProductsByIds(
+            @RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(
+                ApiResponse.success(productService.getProductsByIds(ids)));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<SuggestionDto>>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(
+                ApiResponse.success(productService.suggest(prefix, limit)));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getProductById(
-            @PathVariable Integer id) {
-        Map<String, Object> product = productService.getProductById(id);
-        return ResponseEntity.ok(ApiResponse.success(product));
+    public ResponseEntity<byte[]> getProductById(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCache.respond(RenderedResponseCache.key("product", id),
+                acceptEncoding,
+                () -> ApiResponse.success(productService.getProductById(id)));
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getCategories() {
-        Map<String, Object> categories = productService.getCategories();
-        return ResponseEntity.ok(ApiResponse.success(categories));
+    public ResponseEntity<byte[]> getCategories(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return responseCache.respond(RenderedResponseCache.key("categories"),
+                acceptEncoding, () -> ApiResponse.success(
+                        Map.of("categories", productService.getCategories())));
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> getProductsByCategory(
+    public ResponseEntity<byte[]> getProductsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "20") int limit,
-            @RequestParam(defaultValue = "0") int skip) {
-        Map<String, Object> products =
-                productService.getProductsByCategory(category, limit, skip);
-        return ResponseEntity.ok(ApiResponse.success(products));
+            @RequestParam(defaultValue = "0") int skip,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String normalizedOrder = order.toLowerCase(Locale.ROOT);
+        String normalizedCursor = cursor == null || cursor.isBlank() ? null : cursor;
+        String key = RenderedResponseCache.key("category", category, limit, skip,
+                sortBy, normalizedOrder, normalizedCursor);
+        return responseCache.respond(key, acceptEncoding,
+                () -> ApiResponse.success(productService.getProductsByCategory(
+                        category, limit, skip, sortBy, normalizedOrder,
+                        normalizedCursor)));
     }
 }
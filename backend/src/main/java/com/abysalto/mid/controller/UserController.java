@@ -1,7 +1,10 @@
 package com.abysalto.mid.controller;
 
 import com.abysalto.mid.dto.response.ApiResponse;
+import com.abysalto.mid.dto.response.FavoriteStatus;
+import com.abysalto.mid.dto.response.ProductPageDto;
 import com.abysalto.mid.dto.response.UserDto;
+import com.abysalto.mid.service.FavoriteService;
 import com.abysalto.mid.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
 
     private final UserService userService;
+    private final FavoriteService favoriteService;
 
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<UserDto>> getCurrentUser(
@@ -23,24 +27,32 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(user));
     }
 
+    @GetMapping("/me/favorites")
+    public ResponseEntity<ApiResponse<ProductPageDto>> getFavorites(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "0") int skip) {
+        return ResponseEntity.ok(ApiResponse.success(favoriteService.getFavorites(
+                userDetails.getUsername(), limit, skip)));
+    }
+
     @PostMapping("/favorites/{productId}")
-    public ResponseEntity<ApiResponse<UserDto>> addToFavorites(
+    public ResponseEntity<ApiResponse<FavoriteStatus>> addToFavorites(
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Integer productId) {
-        UserDto user = userService.addToFavorites(userDetails.getUsername(),
-                productId);
+        FavoriteStatus status = favoriteService.addFavorite(
+                userDetails.getUsername(), productId);
         return ResponseEntity.ok(
-                ApiResponse.success("Product added to favorites", user));
+                ApiResponse.success("Product added to favorites", status));
     }
 
     @DeleteMapping("/favorites/{productId}")
-    public ResponseEntity<ApiResponse<UserDto>> removeFromFavorites(
+    public ResponseEntity<ApiResponse<FavoriteStatus>> removeFromFavorites(
             @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Integer productId) {
-        UserDto user =
-                userService.removeFromFavorites(userDetails.getUsername(),
-                        productId);
+        FavoriteStatus status = favoriteService.removeFavorite(
+                userDetails.getUsername(), productId);
         return ResponseEntity.ok(
-                ApiResponse.success("Product removed from favorites", user));
+                ApiResponse.success("Product removed from favorites", status));
     }
 }
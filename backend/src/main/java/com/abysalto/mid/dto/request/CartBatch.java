@@ -0,0 +1,15 @@
+package com.abysalto.mid.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CartBatch {
+    @NotEmpty
+    @Size(max = 200)
+    private List<@Valid CartOperation> operations;
+}
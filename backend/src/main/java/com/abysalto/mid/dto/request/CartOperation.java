@@ -0,0 +1,38 @@
+package com.abysalto.mid.dto.request;
+
+import com.abysalto.mid.constant.CartOperationType;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartOperation {
+    @NotNull
+    private CartOperationType type;
+
+    @NotNull
+    private Integer productId;
+
+    @Min(0)
+    private Integer quantity;
+
+    private String productTitle;
+    private Double productPrice;
+    private String productThumbnail;
+
+    /**
+     * Checks the quantity against the operation type: an add needs at least
+     * one unit, a set at least zero, and a remove ignores it.
+     */
+    public void requireValidQuantity() {
+        if (type == CartOperationType.REMOVE) {
+            return;
+        }
+        int min = type == CartOperationType.ADD ? 1 : 0;
+        if (quantity == null || quantity < min) {
+            throw new IllegalArgumentException(
+                    type + " of product " + productId
+                            + " requires a quantity of at least " + min);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.abysalto.mid.dto.response;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What one cart mutation changed: the current rows of the products it
+ * touched, the products it removed, and the new totals. Clients apply it
+ * to a cart they already hold when {@code version} is newer than theirs.
+ */
+public record CartDelta(
+        Long cartId,
+        Long version,
+        boolean cleared,
+        List<CartItemDto> items,
+        List<Integer> removed,
+        Double total,
+        Integer totalItems) {
+
+    public static CartDelta of(CartDto cart, Collection<Integer> productIds) {
+        Map<Integer, CartItemDto> byProduct = new HashMap<>();
+        for (CartItemDto item : cart.getItems()) {
+            byProduct.put(item.getProductId(), item);
+        }
+        List<CartItemDto> items = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        for (Integer productId : new LinkedHashSet<>(productIds)) {
+            CartItemDto item = byProduct.get(productId);
+            if (item != null) {
+                items.add(item);
+            } else {
+                removed.add(productId);
+            }
+        }
+        return new CartDelta(cart.getId(), cart.getVersion(), false, items, removed,
+                cart.getTotal(), cart.getTotalItems());
+    }
+
+    public static CartDelta cleared(Long cartId, Long version) {
+        return new CartDelta(cartId, version, true, List.of(), List.of(), 0.0, 0);
+    }
+}
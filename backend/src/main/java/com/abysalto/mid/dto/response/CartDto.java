@@ -13,6 +13,7 @@ import java.util.List;
 @AllArgsConstructor
 public class CartDto {
     private Long id;
+    private Long version;
     private List<CartItemDto> items;
     private Double total;
     private Integer totalItems;
@@ -0,0 +1,38 @@
+package com.abysalto.mid.dto.response;
+
+public record CartVersion(Long cartId, Long version) {
+
+    public static CartVersion of(CartDto cart) {
+        return new CartVersion(cart.getId(), cart.getVersion());
+    }
+
+    /**
+     * Validator of a cart response priced against price index generation
+     * {@code prices}; changes with the cart and with catalog prices.
+     */
+    public String etag(long prices) {
+        return "\"" + cartId + "-" + version + "-" + prices + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header matches this version priced at
+     * generation {@code prices}: {@code *}, or one of its comma-separated
+     * entity tags compared whole, weakly (a {@code W/} prefix is ignored).
+     */
+    public boolean matches(String ifNoneMatch, long prices) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String etag = etag(prices);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,7 @@
+package com.abysalto.mid.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CategoryDto(String slug, String name, String url) {
+}
@@ -0,0 +1,4 @@
+package com.abysalto.mid.dto.response;
+
+public record FavoriteStatus(Integer productId, boolean favorite, int favoriteCount) {
+}
@@ -0,0 +1,30 @@
+package com.abysalto.mid.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ProductDto(
+        int id,
+        String title,
+        String description,
+        double price,
+        double discountPercentage,
+        double rating,
+        int stock,
+        String brand,
+        String category,
+        String thumbnail,
+        List<String> images,
+        String shippingInformation,
+        String warrantyInformation,
+        String returnPolicy) {
+
+    public ProductDto {
+        // A few hundred products share a handful of brands and categories.
+        brand = brand != null ? brand.intern() : null;
+        category = category != null ? category.intern() : null;
+        images = images != null ? List.copyOf(images) : List.of();
+    }
+}
@@ -0,0 +1,29 @@
+package com.abysalto.mid.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * One page of a product listing.
+ *
+ * @param nextCursor keyset cursor for the following page; {@code null} on
+ *                   the last page and for listings that cannot be resumed
+ *                   by cursor (search results, upstream responses)
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ProductPageDto(
+        List<ProductDto> products,
+        int total,
+        int skip,
+        int limit,
+        String nextCursor) {
+
+    public ProductPageDto {
+        products = products != null ? List.copyOf(products) : List.of();
+    }
+
+    public ProductPageDto(List<ProductDto> products, int total, int skip, int limit) {
+        this(products, total, skip, limit, null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.abysalto.mid.dto.response;
+
+/**
+ * One type-ahead suggestion: a product title ({@code type = "product"},
+ * with its id) or a brand ({@code type = "brand"}).
+ */
+public record SuggestionDto(String text, String type, Integer productId) {
+}
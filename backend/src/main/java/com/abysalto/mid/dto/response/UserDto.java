@@ -5,8 +5,6 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.util.Set;
-
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,5 +15,5 @@ public class UserDto {
     private String email;
     private String firstName;
     private String lastName;
-    private Set<Integer> favoriteProductIds;
+    private int[] favoriteProductIds;
 }
@@ -0,0 +1,12 @@
+package com.abysalto.mid.dto.response;
+
+/**
+ * Database keys behind a username; {@code cartId} is null until the user's
+ * cart has been created.
+ */
+public record UserIdentity(Long userId, Long cartId) {
+
+    public UserIdentity withCartId(Long cartId) {
+        return new UserIdentity(userId, cartId);
+    }
+}
@@ -0,0 +1,40 @@
+package com.abysalto.mid.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One favorited product. Mapped only so the schema keeps its primary key
+ * on {@code (user_id, product_id)}; rows are read and written with plain
+ * SQL by {@link com.abysalto.mid.favorites.FavoriteStore}.
+ */
+@Entity
+@Table(name = "user_favorites")
+@IdClass(Favorite.Key.class)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Favorite {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", insertable = false, updatable = false)
+    private User user;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Integer productId;
+    }
+}
@@ -2,8 +2,6 @@ package com.abysalto.mid.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import java.util.HashSet;
-import java.util.Set;
 
 @Entity
 @Table(name = "users")
@@ -25,9 +23,4 @@ public class User {
 
     private String firstName;
     private String lastName;
-
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_favorites", joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "product_id")
-    private Set<Integer> favoriteProductIds = new HashSet<>();
-}
\ No newline at end of file
+}
@@ -0,0 +1,7 @@
+package com.abysalto.mid.exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
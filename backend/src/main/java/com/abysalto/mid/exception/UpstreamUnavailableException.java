@@ -0,0 +1,7 @@
+package com.abysalto.mid.exception;
+
+public class UpstreamUnavailableException extends RuntimeException {
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,68 @@
+package com.abysalto.mid.favorites;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of favorited product ids, held as a sorted {@code int[]}:
+ * four bytes per id, binary-search lookups and pages that are plain array
+ * slices. Changes return a new instance, so readers never need a lock.
+ */
+public final class FavoriteIds {
+
+    static final FavoriteIds EMPTY = new FavoriteIds(new int[0]);
+
+    private final int[] ids;
+
+    private FavoriteIds(int[] ids) {
+        this.ids = ids;
+    }
+
+    /**
+     * Wraps ids that are already sorted and distinct, without copying.
+     */
+    static FavoriteIds ofSorted(int[] ids) {
+        return ids.length == 0 ? EMPTY : new FavoriteIds(ids);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean contains(int productId) {
+        return Arrays.binarySearch(ids, productId) >= 0;
+    }
+
+    public int[] page(int skip, int limit) {
+        int from = Math.min(Math.max(skip, 0), ids.length);
+        int to = (int) Math.min((long) from + Math.max(limit, 0), ids.length);
+        return Arrays.copyOfRange(ids, from, to);
+    }
+
+    public int[] toArray() {
+        return ids.clone();
+    }
+
+    FavoriteIds with(int productId) {
+        int index = Arrays.binarySearch(ids, productId);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -index - 1;
+        int[] copy = new int[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insertAt);
+        copy[insertAt] = productId;
+        System.arraycopy(ids, insertAt, copy, insertAt + 1, ids.length - insertAt);
+        return new FavoriteIds(copy);
+    }
+
+    FavoriteIds without(int productId) {
+        int index = Arrays.binarySearch(ids, productId);
+        if (index < 0) {
+            return this;
+        }
+        int[] copy = new int[ids.length - 1];
+        System.arraycopy(ids, 0, copy, 0, index);
+        System.arraycopy(ids, index + 1, copy, index, ids.length - index - 1);
+        return ofSorted(copy);
+    }
+}
@@ -0,0 +1,157 @@
+package com.abysalto.mid.favorites;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Favorites keyed by user id. Adds and removes are single statements
+ * against the {@code (user_id, product_id)} primary key; reads are served
+ * from a per-user {@link FavoriteIds} cache bounded by the total number of
+ * ids it holds.
+ */
+@Component
+public class FavoriteStore {
+
+    private static final String SELECT_SQL =
+            "SELECT product_id FROM user_favorites WHERE user_id = ? ORDER BY product_id";
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO user_favorites (user_id, product_id) VALUES (?, ?)";
+    private static final String DELETE_SQL =
+            "DELETE FROM user_favorites WHERE user_id = ? AND product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, FavoriteIds> favorites;
+    /**
+     * Users with a load in flight, each with the writes seen since its
+     * first loader started. Entries leave with their last loader.
+     */
+    private final ConcurrentHashMap<Long, Loading> loading = new ConcurrentHashMap<>();
+
+    public FavoriteStore(JdbcTemplate jdbcTemplate,
+            @Value("${app.favorites.cache.expire-after-access}") Duration expireAfterAccess,
+            @Value("${app.favorites.cache.max-ids}") long maxIds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.favorites = Caffeine.newBuilder()
+                                 .expireAfterAccess(expireAfterAccess)
+                                 .maximumWeight(maxIds)
+                                 .weigher((Long userId, FavoriteIds ids) -> ids.size() + 1)
+                                 .build();
+    }
+
+    public FavoriteIds get(long userId) {
+        FavoriteIds ids = favorites.getIfPresent(userId);
+        if (ids != null) {
+            return ids;
+        }
+        // Queried outside the cache's compute, like UserIdentityCache. Racing
+        // loads keep the first result; one that overlapped an add or remove
+        // for the same user may have missed it, so it is dropped again unless
+        // that write already updated the cached copy.
+        long writesBefore = startLoad(userId);
+        boolean written;
+        try {
+            ids = load(userId);
+            FavoriteIds cached = favorites.asMap().putIfAbsent(userId, ids);
+            if (cached != null) {
+                return cached;
+            }
+        } finally {
+            written = finishLoad(userId, writesBefore);
+        }
+        if (written) {
+            favorites.asMap().remove(userId, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns {@code true} if the product was not a favorite before.
+     */
+    public boolean add(long userId, int productId) {
+        boolean inserted = jdbcTemplate.update(INSERT_SQL, userId, productId) > 0;
+        loading.computeIfPresent(userId, (id, state) -> state.written());
+        favorites.asMap().computeIfPresent(userId, (id, ids) -> ids.with(productId));
+        return inserted;
+    }
+
+    /**
+     * Returns {@code true} if the product was a favorite before.
+     */
+    public boolean remove(long userId, int productId) {
+        boolean deleted = jdbcTemplate.update(DELETE_SQL, userId, productId) > 0;
+        loading.computeIfPresent(userId, (id, state) -> state.written());
+        favorites.asMap().computeIfPresent(userId, (id, ids) -> ids.without(productId));
+        return deleted;
+    }
+
+    private long startLoad(long userId) {
+        long[] writes = new long[1];
+        loading.compute(userId, (id, state) -> {
+            Loading joined = state == null ? new Loading() : state.join();
+            writes[0] = joined.writes;
+            return joined;
+        });
+        return writes[0];
+    }
+
+    /**
+     * Returns whether the user's favorites were written during the load.
+     */
+    private boolean finishLoad(long userId, long writesBefore) {
+        boolean[] written = new boolean[1];
+        loading.computeIfPresent(userId, (id, state) -> {
+            written[0] = state.writes != writesBefore;
+            return --state.loaders == 0 ? null : state;
+        });
+        return written[0];
+    }
+
+    private FavoriteIds load(long userId) {
+        IdBuffer buffer = new IdBuffer();
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            buffer.add(rs.getInt(1));
+        }, userId);
+        return FavoriteIds.ofSorted(buffer.toArray());
+    }
+
+    /**
+     * Only touched inside {@link ConcurrentHashMap} computes for its key.
+     */
+    private static final class Loading {
+        private int loaders = 1;
+        private long writes;
+
+        Loading join() {
+            loaders++;
+            return this;
+        }
+
+        Loading written() {
+            writes++;
+            return this;
+        }
+    }
+
+    private static final class IdBuffer {
+        private int[] ids = new int[16];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
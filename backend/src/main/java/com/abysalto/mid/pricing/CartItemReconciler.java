@@ -0,0 +1,155 @@
+package com.abysalto.mid.pricing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Brings the title, price and thumbnail stored on {@code cart_items} in
+ * line with the {@link PriceIndex}. Rows are walked in id order one batch
+ * at a time; each batch rewrites its stale rows and bumps the version of
+ * the carts they belong to in one transaction, so cart ETags change once
+ * the stored snapshot does.
+ * <p>
+ * A pass only runs when the index has been rebuilt since the last completed
+ * one. Rows added in between keep the snapshot they were written with until
+ * the next catalog change, which is harmless: reads price carts live.
+ * <p>
+ * Not active in write-behind mode, where the in-memory cart state owns
+ * the stored rows.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cart.write-behind.enabled", havingValue = "false",
+        matchIfMissing = true)
+public class CartItemReconciler {
+
+    private static final String SCAN_SQL =
+            "SELECT id, cart_id, product_id, product_title, product_price, product_thumbnail "
+                    + "FROM cart_items WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL =
+            "UPDATE cart_items SET product_title = ?, product_price = ?, product_thumbnail = ? "
+                    + "WHERE id = ?";
+    private static final String VERSION_SQL =
+            "UPDATE carts SET version = version + 1 WHERE id = ?";
+
+    private final PriceIndex priceIndex;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private volatile long reconciledGeneration = -1;
+
+    public CartItemReconciler(PriceIndex priceIndex, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.pricing.reconcile-batch-size}") int batchSize) {
+        this.priceIndex = priceIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.reconcile-interval}",
+            initialDelayString = "${app.pricing.reconcile-interval}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Cart price reconciliation failed, retrying on next cycle: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one full pass over {@code cart_items} and returns the number of
+     * rows rewritten. Does nothing while the catalog is not loaded or when
+     * prices have not changed since the last completed pass.
+     */
+    public int reconcile() {
+        // Read before the pass: a rebuild during it leaves the next one due
+        long generation = priceIndex.generation();
+        if (priceIndex.isEmpty() || generation == reconciledGeneration
+                || !reconcileLock.tryLock()) {
+            return 0;
+        }
+        try {
+            int updated = 0;
+            long lastId = 0;
+            List<StoredItem> batch;
+            do {
+                batch = jdbcTemplate.query(SCAN_SQL, (rs, rowNum) -> new StoredItem(
+                        rs.getLong("id"), rs.getLong("cart_id"), rs.getInt("product_id"),
+                        rs.getString("product_title"),
+                        rs.getObject("product_price", Double.class),
+                        rs.getString("product_thumbnail")), lastId, batchSize);
+                if (!batch.isEmpty()) {
+                    lastId = batch.get(batch.size() - 1).id();
+                    updated += write(stale(batch));
+                }
+            } while (batch.size() == batchSize);
+            if (updated > 0) {
+                log.info("Reconciled {} cart items with catalog prices", updated);
+            }
+            reconciledGeneration = generation;
+            return updated;
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private List<Repriced> stale(List<StoredItem> batch) {
+        List<Repriced> stale = new ArrayList<>();
+        for (StoredItem item : batch) {
+            PriceIndex.Entry live = priceIndex.find(item.productId());
+            if (live == null) {
+                continue;
+            }
+            boolean priceChanged = item.price() == null
+                    || PriceIndex.toCents(item.price()) != live.priceCents();
+            if (priceChanged || !Objects.equals(item.title(), live.title())
+                    || !Objects.equals(item.thumbnail(), live.thumbnail())) {
+                stale.add(new Repriced(item, live));
+            }
+        }
+        return stale;
+    }
+
+    private int write(List<Repriced> stale) {
+        if (stale.isEmpty()) {
+            return 0;
+        }
+        Set<Long> cartIds = new TreeSet<>();
+        stale.forEach(row -> cartIds.add(row.item().cartId()));
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, stale, stale.size(), (ps, row) -> {
+                ps.setString(1, row.live().title());
+                ps.setBigDecimal(2, BigDecimal.valueOf(row.live().priceCents(), 2));
+                ps.setString(3, row.live().thumbnail());
+                ps.setLong(4, row.item().id());
+            });
+            jdbcTemplate.batchUpdate(VERSION_SQL, cartIds, cartIds.size(),
+                    (ps, cartId) -> ps.setLong(1, cartId));
+        });
+        return stale.size();
+    }
+
+    private record StoredItem(long id, long cartId, int productId, String title,
+            Double price, String thumbnail) {
+    }
+
+    private record Repriced(StoredItem item, PriceIndex.Entry live) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.abysalto.mid.pricing;
+
+import com.abysalto.mid.catalog.CatalogUpdatedEvent;
+import com.abysalto.mid.catalog.ProductCatalog;
+import com.abysalto.mid.dto.response.ProductDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Current catalog price, title and thumbnail per product id, with prices
+ * held as whole cents. Rebuilt from {@link ProductCatalog} whenever the
+ * catalog changes and swapped atomically, so a cart is always priced
+ * against a single catalog version without touching upstream.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PriceIndex {
+
+    private final ProductCatalog productCatalog;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Map<Integer, Entry> entries = Map.of();
+
+    @EventListener(CatalogUpdatedEvent.class)
+    public void rebuild() {
+        Map<Integer, Entry> rebuilt = new HashMap<>();
+        for (ProductDto product : productCatalog.products()) {
+            rebuilt.put(product.id(), new Entry(toCents(product.price()),
+                    product.title(), product.thumbnail()));
+        }
+        entries = Map.copyOf(rebuilt);
+        // Bumped after the swap: a reader that saw the old generation may
+        // price against the new entries, never the other way round.
+        generation.incrementAndGet();
+        log.debug("Price index rebuilt with {} products", rebuilt.size());
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Counts rebuilds. Carts are repriced on every read, so anything
+     * validating a cart response must include this next to the cart version.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public Entry find(Integer productId) {
+        return productId != null ? entries.get(productId) : null;
+    }
+
+    /**
+     * Starts pricing one cart against the index as it is right now.
+     */
+    public PricedCart newCart() {
+        return new PricedCart(entries);
+    }
+
+    /**
+     * Converts a decimal amount to cents, rounding half up. Goes through
+     * the shortest decimal representation of the double, so 19.99 becomes
+     * 1999 rather than 1998.
+     */
+    public static long toCents(double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(2)
+                         .setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static double fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2).doubleValue();
+    }
+
+    public record Entry(long priceCents, String title, String thumbnail) {
+    }
+}
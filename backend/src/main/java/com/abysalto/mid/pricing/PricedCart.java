@@ -0,0 +1,55 @@
+package com.abysalto.mid.pricing;
+
+import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.dto.response.CartItemDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accumulates the lines of one cart in a single pass. Products found in
+ * the price index are shown with their catalog price, title and
+ * thumbnail; the stored snapshot is only used for products the catalog
+ * does not know. Subtotals and the total are summed in whole cents and
+ * converted to decimal once per amount.
+ */
+public final class PricedCart {
+
+    private final Map<Integer, PriceIndex.Entry> prices;
+    private final List<CartItemDto> items = new ArrayList<>();
+    private long totalCents;
+    private int totalItems;
+
+    PricedCart(Map<Integer, PriceIndex.Entry> prices) {
+        this.prices = prices;
+    }
+
+    public PricedCart add(Long id, Integer productId, int quantity,
+            String title, Double price, String thumbnail) {
+        PriceIndex.Entry live = productId != null ? prices.get(productId) : null;
+        Long unitCents = live != null ? Long.valueOf(live.priceCents())
+                : price != null ? Long.valueOf(PriceIndex.toCents(price)) : null;
+        long subtotalCents = unitCents != null
+                ? Math.multiplyExact(unitCents.longValue(), quantity) : 0;
+        items.add(CartItemDto.builder()
+                             .id(id)
+                             .productId(productId)
+                             .quantity(quantity)
+                             .productTitle(live != null ? live.title() : title)
+                             .productPrice(unitCents != null
+                                     ? PriceIndex.fromCents(unitCents) : null)
+                             .productThumbnail(live != null ? live.thumbnail() : thumbnail)
+                             .subtotal(PriceIndex.fromCents(subtotalCents))
+                             .build());
+        totalCents = Math.addExact(totalCents, subtotalCents);
+        totalItems += quantity;
+        return this;
+    }
+
+    public CartDto toDto(Long cartId, Long version) {
+        return CartDto.builder().id(cartId).version(version).items(items)
+                      .total(PriceIndex.fromCents(totalCents))
+                      .totalItems(totalItems).build();
+    }
+}
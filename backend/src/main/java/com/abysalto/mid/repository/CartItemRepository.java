@@ -0,0 +1,43 @@
+package com.abysalto.mid.repository;
+
+import com.abysalto.mid.entity.CartItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Single-statement cart item writes keyed by (cart_id, product_id), so
+ * mutations never load the cart's items.
+ */
+public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+
+    /**
+     * Inserts the item, or adds {@code quantity} to the existing row for the
+     * same product. Relies on the unique (cart_id, product_id) key, which
+     * also makes concurrent adds of one product safe.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO cart_items (cart_id, product_id, quantity, product_title, product_price, product_thumbnail) "
+            + "VALUES (:cartId, :productId, :quantity, :title, :price, :thumbnail) "
+            + "ON DUPLICATE KEY UPDATE quantity = quantity + :quantity",
+            nativeQuery = true)
+    int upsert(@Param("cartId") Long cartId, @Param("productId") Integer productId,
+            @Param("quantity") int quantity, @Param("title") String title,
+            @Param("price") Double price, @Param("thumbnail") String thumbnail);
+
+    @Modifying
+    @Query("update CartItem i set i.quantity = :quantity "
+            + "where i.cart.id = :cartId and i.productId = :productId")
+    int updateQuantity(@Param("cartId") Long cartId,
+            @Param("productId") Integer productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("delete from CartItem i where i.cart.id = :cartId and i.productId = :productId")
+    int deleteByCartIdAndProductId(@Param("cartId") Long cartId,
+            @Param("productId") Integer productId);
+
+    @Modifying
+    @Query("delete from CartItem i where i.cart.id = :cartId")
+    int deleteByCartId(@Param("cartId") Long cartId);
+}
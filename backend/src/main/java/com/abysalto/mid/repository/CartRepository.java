@@ -1,11 +1,24 @@
 package com.abysalto.mid.repository;
 
+import com.abysalto.mid.dto.response.CartVersion;
 import com.abysalto.mid.entity.Cart;
-import com.abysalto.mid.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
-    Optional<Cart> findByUser(User user);
+    @EntityGraph(attributePaths = "items")
+    Optional<Cart> findWithItemsByUserId(Long userId);
+
+    @Modifying
+    @Query("update Cart c set c.version = c.version + 1 where c.id = :id")
+    int incrementVersion(@Param("id") Long id);
+
+    @Query("select new com.abysalto.mid.dto.response.CartVersion(c.id, c.version) "
+            + "from Cart c where c.id = :id")
+    Optional<CartVersion> findVersionById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -1,14 +1,29 @@
 package com.abysalto.mid.repository;
 
+import com.abysalto.mid.dto.response.UserIdentity;
 import com.abysalto.mid.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    @Query("select new com.abysalto.mid.dto.response.UserIdentity(u.id, c.id) "
+            + "from User u left join Cart c on c.user = u where u.username = :username")
+    Optional<UserIdentity> findIdentityByUsername(@Param("username") String username);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePasswordByUsername(@Param("username") String username,
+            @Param("password") String password);
 }
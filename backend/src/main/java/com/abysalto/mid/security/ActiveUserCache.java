@@ -0,0 +1,54 @@
+package com.abysalto.mid.security;
+
+import com.abysalto.mid.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of whether a username still exists, used by the
+ * stateless JWT path so a deleted account stops authenticating within one
+ * TTL window without a database lookup on every request. Misses are cached
+ * too, so tokens of a deleted account cannot force a query per request;
+ * registration invalidates the name.
+ */
+@Component
+public class ActiveUserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, Boolean> activeUsers;
+    private final boolean enabled;
+
+    public ActiveUserCache(UserRepository userRepository,
+            @Value("${app.jwt.user-check-ttl}") Duration ttl,
+            @Value("${app.jwt.user-check-size}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.enabled = !ttl.isZero();
+        this.activeUsers = Caffeine.newBuilder()
+                                   .expireAfterWrite(enabled ? ttl : Duration.ofSeconds(1))
+                                   .maximumSize(maximumSize)
+                                   .build();
+    }
+
+    public boolean isActive(String username) {
+        if (!enabled) {
+            return true;
+        }
+        Boolean active = activeUsers.getIfPresent(username);
+        if (active != null) {
+            return active;
+        }
+        // Queried outside the cache's compute: a loader runs under a map-bin
+        // monitor, and a JDBC call there would pin a virtual thread's carrier.
+        boolean exists = userRepository.existsByUsername(username);
+        activeUsers.put(username, exists);
+        return exists;
+    }
+
+    public void invalidate(String username) {
+        activeUsers.invalidate(username);
+    }
+}
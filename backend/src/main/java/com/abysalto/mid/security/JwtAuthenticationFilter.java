@@ -5,8 +5,10 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,6 +17,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 @Component
 @RequiredArgsConstructor
@@ -22,6 +25,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsService userDetailsService;
+    private final ActiveUserCache activeUserCache;
+
+    @Value("${app.jwt.stateless}")
+    private boolean statelessAuth;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -31,12 +38,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (StringUtils.hasText(token)) {
             try {
-                String username = jwtTokenProvider.extractUsername(token);
+                String username = jwtTokenProvider.parseToken(token).getSubject();
                 if (username != null && SecurityContextHolder.getContext()
                                                              .getAuthentication() == null) {
-                    UserDetails userDetails =
-                            userDetailsService.loadUserByUsername(username);
-                    if (jwtTokenProvider.validateToken(token, userDetails)) {
+                    UserDetails userDetails = loadPrincipal(username);
+                    if (userDetails != null) {
                         UsernamePasswordAuthenticationToken auth =
                                 new UsernamePasswordAuthenticationToken(
                                         userDetails, null,
@@ -55,6 +61,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails loadPrincipal(String username) {
+        if (!statelessAuth) {
+            return userDetailsService.loadUserByUsername(username);
+        }
+        if (!activeUserCache.isActive(username)) {
+            return null;
+        }
+        // The signed token is trusted as-is; no credentials are needed past this point.
+        return User.withUsername(username)
+                   .password("")
+                   .authorities(Collections.emptyList())
+                   .build();
+    }
+
     private String extractToken(HttpServletRequest request) {
         String header = request.getHeader("Authorization");
         if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
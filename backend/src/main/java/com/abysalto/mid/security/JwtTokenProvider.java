@@ -1,5 +1,8 @@
 package com.abysalto.mid.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -8,6 +11,11 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -15,15 +23,22 @@ import java.util.Map;
 @Component
 public class JwtTokenProvider {
 
-    @Value("${app.jwt.secret}")
-    private String jwtSecret;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+    private final Cache<String, Claims> verifiedTokens;
 
-    @Value("${app.jwt.expiration}")
-    private long jwtExpiration;
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtTokenProvider(@Value("${app.jwt.secret}") String jwtSecret,
+            @Value("${app.jwt.expiration}") long jwtExpiration,
+            @Value("${app.jwt.verified-cache-size}") long verifiedCacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.jwtExpiration = jwtExpiration;
+        this.verifiedTokens = Caffeine.newBuilder()
+                                      .maximumSize(verifiedCacheSize)
+                                      .expireAfter(Expiry.creating(
+                                              (String digest, Claims claims) -> timeToExpiry(claims)))
+                                      .build();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -31,28 +46,43 @@ public class JwtTokenProvider {
         return Jwts.builder().claims(claims).subject(userDetails.getUsername())
                    .issuedAt(new Date()).expiration(
                         new Date(System.currentTimeMillis() + jwtExpiration))
-                   .signWith(getSigningKey()).compact();
+                   .signWith(signingKey).compact();
     }
 
-    public String extractUsername(String token) {
-        return Jwts.parser().verifyWith(getSigningKey()).build()
-                   .parseSignedClaims(token).getPayload().getSubject();
+    /**
+     * Verifies the signature and expiry of {@code token} and returns its claims.
+     * Tokens verified earlier are answered from a digest-keyed cache whose
+     * entries expire together with the token itself.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public Claims parseToken(String token) {
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verifiedTokens.put(digest, claims);
+        return claims;
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        try {
-            String username = extractUsername(token);
-            return username.equals(
-                    userDetails.getUsername()) && !isTokenExpired(token);
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+    private static Duration timeToExpiry(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return Duration.ZERO;
         }
+        long remaining = expiration.getTime() - System.currentTimeMillis();
+        return Duration.ofMillis(Math.max(remaining, 0));
     }
 
-    private boolean isTokenExpired(String token) {
-        Date expiration = Jwts.parser().verifyWith(getSigningKey()).build()
-                              .parseSignedClaims(token).getPayload()
-                              .getExpiration();
-        return expiration.before(new Date());
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                                       .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package com.abysalto.mid.security;
+
+import com.abysalto.mid.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Password encoder that runs every hash and verification on a dedicated,
+ * CPU-sized pool so a burst of logins cannot occupy all request threads.
+ * When the pool's queue is full the call fails fast with
+ * {@link PasswordHashingBusyException} (429) instead of piling up.
+ * <p>
+ * Hashes are stored with an algorithm prefix ({@code {bcrypt}},
+ * {@code {argon2}}); legacy unprefixed hashes are read as bcrypt. Hashes that
+ * use another algorithm or a lower bcrypt cost than configured are re-encoded
+ * on the next successful login.
+ */
+@Component
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor hashPool;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    public OffloadedPasswordEncoder(MeterRegistry meterRegistry,
+            @Value("${app.password.algorithm}") String algorithm,
+            @Value("${app.password.bcrypt-strength}") int bcryptStrength,
+            @Value("${app.password.hash-threads}") int hashThreads,
+            @Value("${app.password.queue-capacity}") int queueCapacity) {
+        this.delegate = createDelegate(algorithm, bcryptStrength);
+        int threads = hashThreads > 0 ? hashThreads
+                : Runtime.getRuntime().availableProcessors();
+        this.hashPool = new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.meterRegistry = meterRegistry;
+        this.rejected = Counter.builder("auth.password.rejected")
+                               .description("Hash requests refused because the queue was full")
+                               .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", hashPool, p -> p.getQueue().size())
+             .register(meterRegistry);
+    }
+
+    public static PasswordEncoder createDelegate(String algorithm, int bcryptStrength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, Map.of(
+                "bcrypt", bcrypt,
+                "argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8()));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return offload("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return offload("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashPool.shutdownNow();
+    }
+
+    private <T> T offload(String operation, Supplier<T> hash) {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result = hashPool.submit(() -> {
+                long started = System.nanoTime();
+                timer("queue", operation).record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    return hash.get();
+                } finally {
+                    timer("hash", operation).record(System.nanoTime() - started,
+                            TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException(
+                    "Too many sign-in attempts in progress, please retry shortly");
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Timer timer(String phase, String operation) {
+        return Timer.builder("auth.password." + phase)
+                    .tag("operation", operation)
+                    .register(meterRegistry);
+    }
+}
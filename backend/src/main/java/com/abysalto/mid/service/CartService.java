@@ -1,12 +1,18 @@
 package com.abysalto.mid.service;
 
 import com.abysalto.mid.dto.request.AddItem;
+import com.abysalto.mid.dto.request.CartBatch;
 import com.abysalto.mid.dto.request.UpdateQuantity;
 import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.dto.response.CartVersion;
+
+import java.util.Optional;
 
 public interface CartService {
     CartDto getCart(String username);
 
+    Optional<CartVersion> getCartVersion(String username);
+
     CartDto addItem(String username, AddItem request);
 
     CartDto updateItemQuantity(String username, Integer productId, UpdateQuantity request);
@@ -14,5 +20,7 @@ public interface CartService {
 
     CartDto removeItem(String username, Integer productId);
 
+    CartDto applyBatch(String username, CartBatch request);
+
     void clearCart(String username);
 }
@@ -0,0 +1,17 @@
+package com.abysalto.mid.service;
+
+import com.abysalto.mid.dto.response.FavoriteStatus;
+import com.abysalto.mid.dto.response.ProductPageDto;
+
+public interface FavoriteService {
+    FavoriteStatus addFavorite(String username, Integer productId);
+
+    FavoriteStatus removeFavorite(String username, Integer productId);
+
+    /**
+     * One page of the user's favorites, ordered by product id, with product
+     * details filled in. Favorites no longer in the catalog are left out of
+     * the page but still count towards the total.
+     */
+    ProductPageDto getFavorites(String username, int limit, int skip);
+}
@@ -1,15 +1,37 @@
 package com.abysalto.mid.service;
 
-import java.util.Map;
+import com.abysalto.mid.dto.response.CategoryDto;
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.ProductPageDto;
+import com.abysalto.mid.dto.response.SuggestionDto;
+
+import java.util.List;
 
 public interface ProductService {
-    Map<String, Object> getAllProducts(int limit, int skip, String sortBy,
-            String order, String search);
+    /**
+     * Lists products. With the local catalog loaded, a page can be resumed
+     * from the {@code nextCursor} of the previous one instead of
+     * {@code skip}.
+     */
+    ProductPageDto getAllProducts(int limit, int skip, String sortBy,
+            String order, String search, String cursor);
+
+    ProductDto getProductById(Integer id);
+
+    /**
+     * Looks up several products at once. Results follow the order of
+     * {@code ids}; ids that do not exist are left out.
+     */
+    List<ProductDto> getProductsByIds(List<Integer> ids);
 
-    Map<String, Object> getProductById(Integer id);
+    /**
+     * Type-ahead suggestions from the local catalog; empty until the
+     * catalog has been loaded.
+     */
+    List<SuggestionDto> suggest(String prefix, int limit);
 
-    Map<String, Object> getCategories();
+    List<CategoryDto> getCategories();
 
-    Map<String, Object> getProductsByCategory(String category, int limit,
-            int skip);
-}
\ No newline at end of file
+    ProductPageDto getProductsByCategory(String category, int limit,
+            int skip, String sortBy, String order, String cursor);
+}
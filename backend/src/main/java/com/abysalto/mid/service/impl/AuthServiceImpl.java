@@ -1,17 +1,19 @@
 package com.abysalto.mid.service.impl;
 
+import com.abysalto.mid.cache.UserIdentityCache;
 import com.abysalto.mid.dto.request.Login;
 import com.abysalto.mid.dto.request.Register;
 import com.abysalto.mid.dto.response.AuthDto;
 import com.abysalto.mid.entity.User;
 import com.abysalto.mid.repository.UserRepository;
+import com.abysalto.mid.security.ActiveUserCache;
 import com.abysalto.mid.security.JwtTokenProvider;
 import com.abysalto.mid.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -20,10 +22,11 @@ import org.springframework.stereotype.Service;
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
+    private final UserIdentityCache identityCache;
+    private final ActiveUserCache activeUserCache;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
 
     @Override
     public AuthDto register(Register request) {
@@ -43,8 +46,10 @@ public class AuthServiceImpl implements AuthService {
                         .build();
 
         userRepository.save(user);
+        identityCache.invalidate(user.getUsername());
+        activeUserCache.invalidate(user.getUsername());
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getUsername());
+        UserDetails userDetails = UserDetailsServiceImpl.toUserDetails(user);
         String token = jwtTokenProvider.generateToken(userDetails);
 
         return AuthDto.builder()
@@ -58,15 +63,14 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public AuthDto login(Login request) {
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getUsername(),
                         request.getPassword())
         );
 
-        User user = userRepository.findByUsername(request.getUsername())
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        User user = userRepository.findByUsername(userDetails.getUsername())
                                   .orElseThrow();
-        UserDetails userDetails =
-                userDetailsService.loadUserByUsername(user.getUsername());
         String token = jwtTokenProvider.generateToken(userDetails);
 
         return AuthDto.builder()
@@ -0,0 +1,25 @@
+package com.abysalto.mid.service.impl;
+
+import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.entity.CartItem;
+import com.abysalto.mid.pricing.PriceIndex;
+import com.abysalto.mid.pricing.PricedCart;
+
+import java.util.Collection;
+
+public final class CartMapper {
+
+    private CartMapper() {
+    }
+
+    public static CartDto toDto(PriceIndex prices, Long cartId, Long version,
+            Collection<CartItem> cartItems) {
+        PricedCart cart = prices.newCart();
+        for (CartItem item : cartItems) {
+            cart.add(item.getId(), item.getProductId(), item.getQuantity(),
+                    item.getProductTitle(), item.getProductPrice(),
+                    item.getProductThumbnail());
+        }
+        return cart.toDto(cartId, version);
+    }
+}
@@ -1,153 +1,183 @@
 package com.abysalto.mid.service.impl;
 
+import com.abysalto.mid.cache.UserIdentityCache;
+import com.abysalto.mid.cart.CartChangedEvent;
+import com.abysalto.mid.cart.CartItemBatchWriter;
+import com.abysalto.mid.cart.CartReadModel;
 import com.abysalto.mid.dto.request.AddItem;
+import com.abysalto.mid.dto.request.CartBatch;
+import com.abysalto.mid.dto.request.CartOperation;
 import com.abysalto.mid.dto.request.UpdateQuantity;
+import com.abysalto.mid.dto.response.CartDelta;
 import com.abysalto.mid.dto.response.CartDto;
-import com.abysalto.mid.dto.response.CartItemDto;
-import com.abysalto.mid.entity.Cart;
-import com.abysalto.mid.entity.CartItem;
-import com.abysalto.mid.entity.User;
+import com.abysalto.mid.dto.response.CartVersion;
+import com.abysalto.mid.dto.response.UserIdentity;
 import com.abysalto.mid.exception.ResourceNotFoundException;
+import com.abysalto.mid.repository.CartItemRepository;
 import com.abysalto.mid.repository.CartRepository;
-import com.abysalto.mid.repository.UserRepository;
 import com.abysalto.mid.service.CartService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CartServiceImpl implements CartService {
 
+    private static final String INSERT_CART_SQL =
+            "INSERT INTO carts (user_id, version) VALUES (?, 0)";
+    private static final String LOCK_CART_SQL =
+            "SELECT id FROM carts WHERE user_id = ? FOR UPDATE";
+
     private final CartRepository cartRepository;
-    private final UserRepository userRepository;
+    private final CartItemRepository cartItemRepository;
+    private final CartReadModel cartReadModel;
+    private final CartItemBatchWriter cartItemBatchWriter;
+    private final UserIdentityCache identityCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
 
     @Override
     public CartDto getCart(String username) {
-        User user = getUser(username);
-        Cart cart = cartRepository.findByUser(user)
-                                  .orElseGet(() -> createEmptyCart(user));
-        return mapToDto(cart);
+        return readCart(getOrCreateCartId(username));
+    }
+
+    @Override
+    public Optional<CartVersion> getCartVersion(String username) {
+        Long cartId = identityCache.resolve(username).cartId();
+        return cartId == null ? Optional.empty()
+                : cartRepository.findVersionById(cartId);
     }
 
     @Override
     @Transactional
     public CartDto addItem(String username, AddItem request) {
-        User user = getUser(username);
-        Cart cart = cartRepository.findByUser(user)
-                                  .orElseGet(() -> createEmptyCart(user));
-
-        Optional<CartItem> existing = cart.getItems().stream()
-                                          .filter(item -> item.getProductId()
-                                                              .equals(request.getProductId()))
-                                          .findFirst();
-
-        if (existing.isPresent()) {
-            existing.get().setQuantity(
-                    existing.get().getQuantity() + request.getQuantity());
-        } else {
-            CartItem item = CartItem.builder().cart(cart)
-                                    .productId(request.getProductId())
-                                    .quantity(request.getQuantity())
-                                    .productTitle(request.getProductTitle())
-                                    .productPrice(request.getProductPrice())
-                                    .productThumbnail(
-                                            request.getProductThumbnail())
-                                    .build();
-            cart.getItems().add(item);
-        }
+        Long cartId = getOrCreateCartId(username);
 
-        cartRepository.save(cart);
-        return mapToDto(cart);
+        cartItemRepository.upsert(cartId, request.getProductId(),
+                request.getQuantity(), request.getProductTitle(),
+                request.getProductPrice(), request.getProductThumbnail());
+
+        return saveChanges(username, cartId, List.of(request.getProductId()));
     }
 
     @Override
     @Transactional
     public CartDto updateItemQuantity(String username, Integer productId,
             UpdateQuantity request) {
-        User user = getUser(username);
-        Cart cart = cartRepository.findByUser(user)
-                                  .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
+        Long cartId = getCartId(username);
 
         if (request.getQuantity() <= 0) {
-            return removeItem(username, productId);
+            cartItemRepository.deleteByCartIdAndProductId(cartId, productId);
+        } else {
+            cartItemRepository.updateQuantity(cartId, productId,
+                    request.getQuantity());
         }
-
-        cart.getItems().stream()
-            .filter(i -> i.getProductId().equals(productId))
-            .findFirst()
-            .ifPresent(i -> i.setQuantity(request.getQuantity()));
-
-        cartRepository.save(cart);
-        return mapToDto(cart);
+        return saveChanges(username, cartId, List.of(productId));
     }
 
     @Override
     @Transactional
     public CartDto removeItem(String username, Integer productId) {
-        User user = getUser(username);
-        Cart cart = cartRepository.findByUser(user).orElseThrow(
-                () -> new ResourceNotFoundException("Cart not found"));
+        Long cartId = getCartId(username);
 
-        cart.getItems().removeIf(i -> i.getProductId().equals(productId));
-        cartRepository.save(cart);
-        return mapToDto(cart);
+        cartItemRepository.deleteByCartIdAndProductId(cartId, productId);
+        return saveChanges(username, cartId, List.of(productId));
+    }
+
+    @Override
+    @Transactional
+    public CartDto applyBatch(String username, CartBatch request) {
+        request.getOperations().forEach(CartOperation::requireValidQuantity);
+        Long cartId = getOrCreateCartId(username);
+
+        cartItemBatchWriter.apply(cartId, request.getOperations());
+        return saveChanges(username, cartId, request.getOperations().stream()
+                                                   .map(CartOperation::getProductId)
+                                                   .toList());
     }
 
     @Override
     @Transactional
     public void clearCart(String username) {
-        User user = getUser(username);
-        cartRepository.findByUser(user).ifPresent(cart -> {
-            cart.getItems().clear();
-            cartRepository.save(cart);
-        });
+        Long cartId = identityCache.resolve(username).cartId();
+        if (cartId != null) {
+            cartItemRepository.deleteByCartId(cartId);
+            cartRepository.incrementVersion(cartId);
+            cartRepository.findVersionById(cartId).ifPresent(version ->
+                    eventPublisher.publishEvent(new CartChangedEvent(username,
+                            CartDelta.cleared(cartId, version.version()))));
+        }
     }
 
-    private User getUser(String username) {
-        return userRepository.findByUsername(username).orElseThrow(
-                () -> new ResourceNotFoundException("User not found"));
+    private Long getCartId(String username) {
+        Long cartId = identityCache.resolve(username).cartId();
+        if (cartId == null) {
+            throw new ResourceNotFoundException("Cart not found");
+        }
+        return cartId;
     }
 
-    private Cart createEmptyCart(User user) {
-        Cart cart = Cart.builder().user(user).build();
-        return cartRepository.save(cart);
+    /**
+     * Creates the user's cart on first use. Two requests can race to do so
+     * (e.g. a page load fetching the cart while opening the cart stream); the
+     * loser hits the unique {@code user_id} key and continues with the
+     * winner's cart. The insert goes through JDBC so that failure does not
+     * mark the surrounding transaction rollback-only.
+     */
+    private Long getOrCreateCartId(String username) {
+        UserIdentity identity = identityCache.resolve(username);
+        if (identity.cartId() != null) {
+            return identity.cartId();
+        }
+        Long cartId;
+        try {
+            KeyHolder key = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement insert = connection.prepareStatement(INSERT_CART_SQL,
+                        Statement.RETURN_GENERATED_KEYS);
+                insert.setLong(1, identity.userId());
+                return insert;
+            }, key);
+            cartId = key.getKey().longValue();
+        } catch (DataIntegrityViolationException e) {
+            identityCache.invalidate(username);
+            // A locking read sees the committed cart even where this
+            // transaction's snapshot predates it
+            cartId = jdbcTemplate.queryForObject(LOCK_CART_SQL, Long.class,
+                    identity.userId());
+        }
+        identityCache.cartCreated(username, identity, cartId);
+        return cartId;
+    }
+
+    private CartDto readCart(Long cartId) {
+        return cartReadModel.findById(cartId).orElseThrow(
+                () -> new ResourceNotFoundException("Cart not found"));
     }
 
-    private CartDto mapToDto(Cart cart) {
-        List<CartItemDto> items = cart.getItems().stream()
-                                      .map(item -> CartItemDto.builder()
-                                                              .id(item.getId())
-                                                              .productId(
-                                                                      item.getProductId())
-                                                              .quantity(
-                                                                      item.getQuantity())
-                                                              .productTitle(
-                                                                      item.getProductTitle())
-                                                              .productPrice(
-                                                                      item.getProductPrice())
-                                                              .productThumbnail(
-                                                                      item.getProductThumbnail())
-                                                              .subtotal(
-                                                                      item.getProductPrice() != null
-                                                                              ? Math.round(
-                                                                              item.getProductPrice() * item.getQuantity() * 100.0) / 100.0
-                                                                              : 0.0)
-                                                              .build())
-                                      .collect(Collectors.toList());
-
-        double total =
-                items.stream().mapToDouble(CartItemDto::getSubtotal).sum();
-
-        int totalItems =
-                items.stream().mapToInt(CartItemDto::getQuantity).sum();
-
-        return CartDto.builder().id(cart.getId()).items(items)
-                      .total(Math.round(total * 100.0) / 100.0)
-                      .totalItems(totalItems).build();
+    /**
+     * Bumps the version after direct item writes and reads the cart back
+     * through the projection, in the same transaction. The change is
+     * streamed to the user's other sessions once the transaction commits.
+     */
+    private CartDto saveChanges(String username, Long cartId,
+            Collection<Integer> productIds) {
+        cartRepository.incrementVersion(cartId);
+        CartDto cart = readCart(cartId);
+        eventPublisher.publishEvent(new CartChangedEvent(username,
+                CartDelta.of(cart, productIds)));
+        return cart;
     }
-}
\ No newline at end of file
+}
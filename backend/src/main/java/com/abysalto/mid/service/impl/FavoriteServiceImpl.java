@@ -0,0 +1,68 @@
+package com.abysalto.mid.service.impl;
+
+import com.abysalto.mid.cache.UserIdentityCache;
+import com.abysalto.mid.dto.response.FavoriteStatus;
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.ProductPageDto;
+import com.abysalto.mid.favorites.FavoriteIds;
+import com.abysalto.mid.favorites.FavoriteStore;
+import com.abysalto.mid.service.FavoriteService;
+import com.abysalto.mid.service.ProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class FavoriteServiceImpl implements FavoriteService {
+
+    private final FavoriteStore favoriteStore;
+    private final UserIdentityCache identityCache;
+    private final ProductService productService;
+    private final int maxPageSize;
+
+    public FavoriteServiceImpl(FavoriteStore favoriteStore,
+            UserIdentityCache identityCache, ProductService productService,
+            @Value("${app.products.batch.max-ids}") int maxPageSize) {
+        this.favoriteStore = favoriteStore;
+        this.identityCache = identityCache;
+        this.productService = productService;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    public FavoriteStatus addFavorite(String username, Integer productId) {
+        long userId = identityCache.resolve(username).userId();
+        favoriteStore.add(userId, productId);
+        return new FavoriteStatus(productId, true,
+                favoriteStore.get(userId).size());
+    }
+
+    @Override
+    public FavoriteStatus removeFavorite(String username, Integer productId) {
+        long userId = identityCache.resolve(username).userId();
+        favoriteStore.remove(userId, productId);
+        return new FavoriteStatus(productId, false,
+                favoriteStore.get(userId).size());
+    }
+
+    @Override
+    public ProductPageDto getFavorites(String username, int limit, int skip) {
+        if (limit < 1 || limit > maxPageSize || skip < 0) {
+            throw new IllegalArgumentException("limit must be between 1 and "
+                    + maxPageSize + " and skip must not be negative");
+        }
+        FavoriteIds favorites = favoriteStore.get(
+                identityCache.resolve(username).userId());
+        int[] page = favorites.page(skip, limit);
+        List<Integer> ids = new ArrayList<>(page.length);
+        for (int id : page) {
+            ids.add(id);
+        }
+        List<ProductDto> products = ids.isEmpty() ? List.of()
+                : productService.getProductsByIds(ids);
+        return new ProductPageDto(products, favorites.size(),
+                Math.min(skip, favorites.size()), products.size());
+    }
+}
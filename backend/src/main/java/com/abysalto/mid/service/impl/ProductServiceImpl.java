@@ -1,66 +1,243 @@
 package com.abysalto.mid.service.impl;
 
+import com.abysalto.mid.cache.ProductCacheFactory;
+import com.abysalto.mid.catalog.CatalogUpdatedEvent;
+import com.abysalto.mid.catalog.ProductCatalog;
+import com.abysalto.mid.client.DummyJsonClient;
+import com.abysalto.mid.dto.response.CategoryDto;
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.ProductPageDto;
+import com.abysalto.mid.dto.response.SuggestionDto;
+import com.abysalto.mid.exception.ResourceNotFoundException;
+import com.abysalto.mid.exception.UpstreamUnavailableException;
 import com.abysalto.mid.service.ProductService;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
-    private final RestTemplate restTemplate;
+    private static final String ALL_CATEGORIES = "all";
 
-    @Value("${app.dummyjson.base-url}")
-    private String baseUrl;
+    private final DummyJsonClient dummyJsonClient;
+    private final ProductCatalog productCatalog;
+    private final int maxBatchIds;
+    private final ExecutorService batchFetchPool;
+
+    private final LoadingCache<PageQuery, ProductPageDto> products;
+    private final LoadingCache<Integer, ProductDto> product;
+    private final LoadingCache<String, List<CategoryDto>> categories;
+    private final LoadingCache<CategoryQuery, ProductPageDto> productsByCategory;
+
+    public ProductServiceImpl(DummyJsonClient dummyJsonClient,
+            ProductCatalog productCatalog, ProductCacheFactory cacheFactory,
+            @Value("${app.products.batch.max-ids}") int maxBatchIds,
+            @Value("${app.products.batch.fetch-threads}") int batchFetchThreads) {
+        this.dummyJsonClient = dummyJsonClient;
+        this.productCatalog = productCatalog;
+        this.maxBatchIds = maxBatchIds;
+        this.batchFetchPool = Executors.newFixedThreadPool(batchFetchThreads,
+                new CustomizableThreadFactory("product-batch-fetch-"));
+        this.products = cacheFactory.build("products", this::fetchProducts);
+        this.product = cacheFactory.build("product", new ProductLoader());
+        this.categories = cacheFactory.build("categories", key -> fetchCategories());
+        this.productsByCategory = cacheFactory.build("productsByCategory",
+                this::fetchProductsByCategory);
+    }
+
+    @Override
+    public ProductPageDto getAllProducts(int limit, int skip,
+            String sortBy, String order, String search, String cursor) {
+        if (productCatalog.isLoaded()) {
+            // Pages are slices of the catalog's pre-sorted listings; caching
+            // every (limit, skip, sort) combination would only duplicate them.
+            return productCatalog.list(limit, skip, sortBy, order, search, cursor);
+        }
+        requireNoCursor(cursor);
+        return products.get(new PageQuery(limit, skip, sortBy, order, search));
+    }
+
+    @Override
+    public ProductDto getProductById(Integer id) {
+        return product.get(id);
+    }
+
+    @Override
+    public List<ProductDto> getProductsByIds(List<Integer> ids) {
+        Set<Integer> distinct = new LinkedHashSet<>(ids);
+        distinct.remove(null);
+        if (distinct.size() > maxBatchIds) {
+            throw new IllegalArgumentException(
+                    "At most " + maxBatchIds + " product ids per request");
+        }
+        Map<Integer, ProductDto> found = product.getAll(distinct);
+        List<ProductDto> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            ProductDto match = id != null ? found.get(id) : null;
+            if (match != null) {
+                result.add(match);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return productCatalog.isLoaded()
+                ? productCatalog.suggest(prefix, limit) : List.of();
+    }
+
+    @Override
+    public List<CategoryDto> getCategories() {
+        return categories.get(ALL_CATEGORIES);
+    }
 
     @Override
-    @Cacheable(value = "products", key = "#limit + '-' + #skip + '-' + #sortBy + '-' + #order + '-' + #search")
-    public Map<String, Object> getAllProducts(int limit, int skip,
-            String sortBy, String order, String search) {
+    public ProductPageDto getProductsByCategory(String category, int limit,
+            int skip, String sortBy, String order, String cursor) {
+        if (productCatalog.isLoaded()) {
+            return productCatalog.listByCategory(category, limit, skip, sortBy,
+                    order, cursor);
+        }
+        requireNoCursor(cursor);
+        return productsByCategory.get(new CategoryQuery(category, limit, skip,
+                sortBy, order));
+    }
+
+    @EventListener(CatalogUpdatedEvent.class)
+    public void onCatalogUpdated() {
+        products.invalidateAll();
+        product.invalidateAll();
+        categories.invalidateAll();
+        productsByCategory.invalidateAll();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchFetchPool.shutdownNow();
+    }
+
+    /** Cursors are only issued, and only resolvable, against the local catalog. */
+    private static void requireNoCursor(String cursor) {
+        if (cursor != null) {
+            throw new UpstreamUnavailableException(
+                    "Cursor pagination is unavailable until the catalog is loaded");
+        }
+    }
+
+    private ProductPageDto fetchProducts(PageQuery query) {
         String url;
-        if (search != null && !search.isBlank()) {
+        if (query.search() != null && !query.search().isBlank()) {
             url = String.format(
-                    "%s/products/search?q=%s&limit=%d&skip=%d&sortBy=%s&order=%s",
-                    baseUrl, search, limit, skip, sortBy, order);
+                    "/products/search?q=%s&limit=%d&skip=%d&sortBy=%s&order=%s",
+                    query.search(), query.limit(), query.skip(), query.sortBy(),
+                    query.order());
         } else {
             url = String.format(
-                    "%s/products?limit=%d&skip=%d&sortBy=%s&order=%s", baseUrl,
-                    limit, skip, sortBy, order);
+                    "/products?limit=%d&skip=%d&sortBy=%s&order=%s",
+                    query.limit(), query.skip(), query.sortBy(), query.order());
         }
-        log.info("Fetching products from: {}", url);
-        return restTemplate.getForObject(url, Map.class);
+        return dummyJsonClient.get(url, ProductPageDto.class);
     }
 
-    @Override
-    @Cacheable(value = "product", key = "#id")
-    public Map<String, Object> getProductById(Integer id) {
-        String url = baseUrl + "/products/" + id;
-        log.info("Fetching product {} from DummyJSON", id);
-        return restTemplate.getForObject(url, Map.class);
+    private ProductDto fetchProduct(Integer id) {
+        if (productCatalog.isLoaded()) {
+            return productCatalog.findById(id).orElseThrow(
+                    () -> new ResourceNotFoundException("Product not found"));
+        }
+        return dummyJsonClient.get("/products/" + id, ProductDto.class);
     }
 
-    @Override
-    @Cacheable(value = "categories")
-    public Map<String, Object> getCategories() {
-        String url = baseUrl + "/products/categories";
-        Object result = restTemplate.getForObject(url, Object.class);
-        return Map.of("categories", result);
+    /**
+     * Loads the ids {@link LoadingCache#getAll} did not find cached. Upstream
+     * misses are fetched concurrently on the shared batch pool, which caps
+     * parallelism across all batch requests; unknown ids are left out.
+     */
+    private Map<Integer, ProductDto> fetchProductsById(Set<? extends Integer> ids) {
+        Map<Integer, ProductDto> found = new HashMap<>();
+        if (productCatalog.isLoaded()) {
+            for (Integer id : ids) {
+                productCatalog.findById(id).ifPresent(p -> found.put(id, p));
+            }
+            return found;
+        }
+        List<CompletableFuture<ProductDto>> fetches = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            fetches.add(CompletableFuture.supplyAsync(
+                    () -> fetchProductOrNull(id), batchFetchPool));
+        }
+        try {
+            for (CompletableFuture<ProductDto> fetch : fetches) {
+                ProductDto fetched = fetch.join();
+                if (fetched != null) {
+                    found.put(fetched.id(), fetched);
+                }
+            }
+        } catch (CompletionException e) {
+            fetches.forEach(fetch -> fetch.cancel(false));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return found;
     }
 
-    @Override
-    @Cacheable(value = "productsByCategory", key = "#category + '-' + #limit + '-' + #skip")
-    public Map<String, Object> getProductsByCategory(String category, int limit,
-            int skip) {
-        String url = String.format("%s/products/category/%s?limit=%d&skip=%d",
-                baseUrl, category, limit, skip);
-        log.info("Fetching products by category: {}", category);
-        return restTemplate.getForObject(url, Map.class);
-    }
-}
\ No newline at end of file
+    private ProductDto fetchProductOrNull(Integer id) {
+        try {
+            return dummyJsonClient.get("/products/" + id, ProductDto.class);
+        } catch (ResourceNotFoundException e) {
+            return null;
+        }
+    }
+
+    private List<CategoryDto> fetchCategories() {
+        if (productCatalog.isLoaded()) {
+            return productCatalog.getCategories();
+        }
+        return List.of(dummyJsonClient.get("/products/categories",
+                CategoryDto[].class));
+    }
+
+    private ProductPageDto fetchProductsByCategory(CategoryQuery query) {
+        String url = String.format(
+                "/products/category/%s?limit=%d&skip=%d&sortBy=%s&order=%s",
+                query.category(), query.limit(), query.skip(), query.sortBy(),
+                query.order());
+        return dummyJsonClient.get(url, ProductPageDto.class);
+    }
+
+    private final class ProductLoader implements CacheLoader<Integer, ProductDto> {
+
+        @Override
+        public ProductDto load(Integer id) {
+            return fetchProduct(id);
+        }
+
+        @Override
+        public Map<Integer, ProductDto> loadAll(Set<? extends Integer> ids) {
+            return fetchProductsById(ids);
+        }
+    }
+
+    private record PageQuery(int limit, int skip, String sortBy, String order,
+            String search) {
+    }
+
+    private record CategoryQuery(String category, int limit, int skip,
+            String sortBy, String order) {
+    }
+}
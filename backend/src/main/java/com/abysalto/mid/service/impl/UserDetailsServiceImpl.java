@@ -4,6 +4,7 @@ import com.abysalto.mid.entity.User;
 import com.abysalto.mid.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,7 +13,8 @@ import java.util.Collections;
 
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService,
+        UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -22,11 +24,26 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         User user = userRepository.findByUsername(username).orElseThrow(
                 () -> new UsernameNotFoundException(
                         "User not found: " + username));
+        return toUserDetails(user);
+    }
 
+    static UserDetails toUserDetails(User user) {
         return org.springframework.security.core.userdetails.User.builder()
                                                                  .username(user.getUsername())
                                                                  .password(user.getPassword())
                                                                  .authorities(Collections.emptyList())
                                                                  .build();
     }
+
+    /**
+     * Stores a password re-encoded on login because its hash used an
+     * outdated algorithm or cost.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByUsername(user.getUsername(), newPassword);
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                                                                 .password(newPassword)
+                                                                 .build();
+    }
 }
\ No newline at end of file
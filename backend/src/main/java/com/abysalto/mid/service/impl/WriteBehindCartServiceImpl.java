@@ -0,0 +1,121 @@
+package com.abysalto.mid.service.impl;
+
+import com.abysalto.mid.cart.CartChangedEvent;
+import com.abysalto.mid.cart.CartState;
+import com.abysalto.mid.cart.CartStateEngine;
+import com.abysalto.mid.dto.request.AddItem;
+import com.abysalto.mid.dto.request.CartBatch;
+import com.abysalto.mid.dto.request.CartOperation;
+import com.abysalto.mid.dto.request.UpdateQuantity;
+import com.abysalto.mid.dto.response.CartDelta;
+import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.dto.response.CartVersion;
+import com.abysalto.mid.pricing.PriceIndex;
+import com.abysalto.mid.service.CartService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Primary
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartServiceImpl implements CartService {
+
+    private final CartStateEngine cartStateEngine;
+    private final PriceIndex priceIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public CartDto getCart(String username) {
+        return cartStateEngine.apply(username, this::mapToDto);
+    }
+
+    @Override
+    public Optional<CartVersion> getCartVersion(String username) {
+        return cartStateEngine.apply(username, state -> Optional.of(
+                new CartVersion(state.getCartId(), state.getVersion())));
+    }
+
+    @Override
+    public CartDto addItem(String username, AddItem request) {
+        CartDto cart = cartStateEngine.apply(username, state -> {
+            state.add(request.getProductId(), request.getQuantity(),
+                    request.getProductTitle(), request.getProductPrice(),
+                    request.getProductThumbnail());
+            return mapToDto(state);
+        });
+        return published(username, cart, List.of(request.getProductId()));
+    }
+
+    @Override
+    public CartDto updateItemQuantity(String username, Integer productId,
+            UpdateQuantity request) {
+        CartDto cart = cartStateEngine.apply(username, state -> {
+            state.setQuantity(productId, request.getQuantity());
+            return mapToDto(state);
+        });
+        return published(username, cart, List.of(productId));
+    }
+
+    @Override
+    public CartDto removeItem(String username, Integer productId) {
+        CartDto cart = cartStateEngine.apply(username, state -> {
+            state.remove(productId);
+            return mapToDto(state);
+        });
+        return published(username, cart, List.of(productId));
+    }
+
+    @Override
+    public CartDto applyBatch(String username, CartBatch request) {
+        // There is no transaction to roll back here, so reject the whole
+        // batch before the first operation touches the in-memory cart.
+        request.getOperations().forEach(CartOperation::requireValidQuantity);
+        CartDto cart = cartStateEngine.apply(username, state -> {
+            for (CartOperation operation : request.getOperations()) {
+                Integer productId = operation.getProductId();
+                switch (operation.getType()) {
+                    case ADD -> state.add(productId, operation.getQuantity(),
+                            operation.getProductTitle(),
+                            operation.getProductPrice(),
+                            operation.getProductThumbnail());
+                    case UPDATE -> state.setQuantity(productId,
+                            operation.getQuantity());
+                    case REMOVE -> state.remove(productId);
+                }
+            }
+            return mapToDto(state);
+        });
+        return published(username, cart, request.getOperations().stream()
+                                                .map(CartOperation::getProductId)
+                                                .toList());
+    }
+
+    @Override
+    public void clearCart(String username) {
+        CartDelta cleared = cartStateEngine.apply(username, state -> {
+            state.clear();
+            return CartDelta.cleared(state.getCartId(), state.getVersion());
+        });
+        eventPublisher.publishEvent(new CartChangedEvent(username, cleared));
+    }
+
+    private CartDto published(String username, CartDto cart,
+            Collection<Integer> productIds) {
+        eventPublisher.publishEvent(new CartChangedEvent(username,
+                CartDelta.of(cart, productIds)));
+        return cart;
+    }
+
+    private CartDto mapToDto(CartState state) {
+        return CartMapper.toDto(priceIndex, state.getCartId(), state.getVersion(),
+                state.getItems());
+    }
+}
@@ -0,0 +1,107 @@
+package com.abysalto.mid.benchmark;
+
+import com.abysalto.mid.MidApplication;
+import com.abysalto.mid.constant.CartOperationType;
+import com.abysalto.mid.dto.request.CartBatch;
+import com.abysalto.mid.dto.request.CartOperation;
+import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.entity.User;
+import com.abysalto.mid.repository.UserRepository;
+import com.abysalto.mid.service.CartService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk cart write: one {@code POST /api/cart/batch} adding {@code items}
+ * products to an empty cart, under the default persistence settings and the
+ * {@code prod} profile (batched statement rewriting, prepared statement
+ * caching). Needs the MySQL database from application.yaml:
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *      org.openjdk.jmh.Main CartBatchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartBatchBenchmark {
+
+    private static final String USERNAME = "cart-batch-benchmark";
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    @Param({"20", "200"})
+    private int items;
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private CartBatch batch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MidApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .properties("app.catalog.enabled=false", "logging.level.root=WARN")
+                .run();
+        cartService = context.getBean(CartService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        if (userRepository.findByUsername(USERNAME).isEmpty()) {
+            userRepository.save(User.builder().username(USERNAME)
+                                    .email(USERNAME + "@example.com")
+                                    .password("{noop}unused").build());
+        }
+
+        List<CartOperation> operations = new ArrayList<>(items);
+        for (int i = 1; i <= items; i++) {
+            CartOperation operation = new CartOperation();
+            operation.setType(CartOperationType.ADD);
+            operation.setProductId(i);
+            operation.setQuantity(1);
+            operation.setProductTitle("Product " + i);
+            operation.setProductPrice(9.99 + i);
+            operation.setProductThumbnail("https://cdn.dummyjson.com/products/" + i + "/thumbnail.webp");
+            operations.add(operation);
+        }
+        batch = new CartBatch();
+        batch.setOperations(operations);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyCart() {
+        cartService.clearCart(USERNAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartDto addItems() {
+        return cartService.applyBatch(USERNAME, batch);
+    }
+}
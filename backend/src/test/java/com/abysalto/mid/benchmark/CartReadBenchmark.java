@@ -0,0 +1,110 @@
+package com.abysalto.mid.benchmark;
+
+import com.abysalto.mid.MidApplication;
+import com.abysalto.mid.cart.CartReadModel;
+import com.abysalto.mid.dto.request.AddItem;
+import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.entity.User;
+import com.abysalto.mid.pricing.PriceIndex;
+import com.abysalto.mid.repository.CartRepository;
+import com.abysalto.mid.repository.UserRepository;
+import com.abysalto.mid.service.CartService;
+import com.abysalto.mid.service.impl.CartMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading a 20-item cart the way {@code GET /api/cart} does: the
+ * projection query of {@link CartReadModel} by cached cart id against the
+ * previous entity path
+ * (user, then cart with its items, then mapping). Needs the MySQL
+ * database from application.yaml; run with the GC profiler for bytes
+ * allocated per read:
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *      org.openjdk.jmh.Main CartReadBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartReadBenchmark {
+
+    private static final String USERNAME = "cart-read-benchmark";
+    private static final int ITEMS = 20;
+
+    private ConfigurableApplicationContext context;
+    private CartReadModel cartReadModel;
+    private UserRepository userRepository;
+    private CartRepository cartRepository;
+    private PriceIndex priceIndex;
+    private Long cartId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(MidApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("app.catalog.enabled=false", "logging.level.root=WARN")
+                .run();
+        cartReadModel = context.getBean(CartReadModel.class);
+        userRepository = context.getBean(UserRepository.class);
+        cartRepository = context.getBean(CartRepository.class);
+        priceIndex = context.getBean(PriceIndex.class);
+
+        if (userRepository.findByUsername(USERNAME).isEmpty()) {
+            userRepository.save(User.builder().username(USERNAME)
+                                    .email(USERNAME + "@example.com")
+                                    .password("{noop}unused").build());
+        }
+        CartService cartService = context.getBean(CartService.class);
+        cartService.clearCart(USERNAME);
+        for (int i = 1; i <= ITEMS; i++) {
+            AddItem item = new AddItem();
+            item.setProductId(i);
+            item.setQuantity(i % 3 + 1);
+            item.setProductTitle("Product " + i);
+            item.setProductPrice(9.99 + i);
+            item.setProductThumbnail("https://cdn.dummyjson.com/products/" + i + "/thumbnail.webp");
+            cartService.addItem(USERNAME, item);
+        }
+        cartId = cartService.getCart(USERNAME).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CartDto projection() {
+        return cartReadModel.findById(cartId).orElseThrow();
+    }
+
+    @Benchmark
+    public CartDto entities() {
+        User user = userRepository.findByUsername(USERNAME).orElseThrow();
+        return cartRepository.findWithItemsByUserId(user.getId())
+                             .map(cart -> CartMapper.toDto(priceIndex, cart.getId(),
+                                     cart.getVersion(), cart.getItems()))
+                             .orElseThrow();
+    }
+}
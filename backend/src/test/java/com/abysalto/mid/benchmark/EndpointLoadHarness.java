@@ -0,0 +1,198 @@
+package com.abysalto.mid.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load generator comparing the platform-thread and
+ * virtual-thread execution modes. Start the backend once per mode, e.g.
+ * <pre>
+ * VIRTUAL_THREADS=false SERVER_PORT=8080 ./mvnw spring-boot:run
+ * VIRTUAL_THREADS=true  SERVER_PORT=8081 ./mvnw spring-boot:run
+ * </pre>
+ * and run the harness against both (JDK only, no extra classpath):
+ * <pre>
+ * ./mvnw test-compile
+ * java -cp target/test-classes com.abysalto.mid.benchmark.EndpointLoadHarness \
+ *      400 30 platform=http://localhost:8080 virtual=http://localhost:8081
+ * </pre>
+ * Arguments are concurrent clients, seconds per scenario and one
+ * {@code mode=baseUrl} pair per running instance. Every scenario runs against
+ * each instance in turn, warmed up for a third of its duration, and the
+ * throughput and latency percentiles of successful requests are printed
+ * side by side. Pick more clients than {@code server.tomcat.threads.max}
+ * (200) to see the modes diverge.
+ */
+public class EndpointLoadHarness {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "loadtest-password";
+
+    private static final String[] SCENARIOS = {
+            "/api/cart",
+            "/api/products?limit=12&skip=0&sortBy=price&order=asc",
+            "/api/products/1",
+            "/api/products/category/smartphones"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        List<Target> targets = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            targets.add(Target.parse(args[i]));
+        }
+        if (targets.isEmpty()) {
+            targets.add(Target.parse("platform=http://localhost:8080"));
+            targets.add(Target.parse("virtual=http://localhost:8081"));
+        }
+
+        HttpClient http = HttpClient.newBuilder()
+                                    .connectTimeout(Duration.ofSeconds(5))
+                                    .build();
+        Map<Target, String> tokens = new LinkedHashMap<>();
+        for (Target target : targets) {
+            String token = authenticate(http, target.baseUrl());
+            post(http, target.baseUrl() + "/api/cart/items", token,
+                    "{\"productId\":1,\"quantity\":1,\"productTitle\":\"Load test\",\"productPrice\":9.99}");
+            tokens.put(target, token);
+        }
+
+        System.out.printf("%-55s %-10s %10s %9s %9s %9s %7s%n",
+                "endpoint", "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (String path : SCENARIOS) {
+            for (Target target : targets) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(target.baseUrl() + path))
+                                                 .header("Authorization", "Bearer " + tokens.get(target))
+                                                 .timeout(Duration.ofSeconds(30))
+                                                 .GET()
+                                                 .build();
+                run(http, request, clients, Duration.ofSeconds(Math.max(1, seconds / 3)));
+                Result result = run(http, request, clients, Duration.ofSeconds(seconds));
+                System.out.printf("%-55s %-10s %10.1f %9.2f %9.2f %9.2f %7d%n", path,
+                        target.mode(), result.throughput(), result.percentile(0.50),
+                        result.percentile(0.99), result.percentile(1.0), result.errors());
+            }
+        }
+        System.exit(0);
+    }
+
+    private static Result run(HttpClient http, HttpRequest request, int clients,
+            Duration duration) throws Exception {
+        // Virtual client threads, so the harness is never the bottleneck
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<Worker>> futures = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            futures.add(workers.submit(() -> {
+                Worker worker = new Worker();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response =
+                                http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() < 400) {
+                            worker.record(System.nanoTime() - start);
+                        } else {
+                            worker.errors++;
+                        }
+                    } catch (IOException e) {
+                        worker.errors++;
+                    }
+                }
+                return worker;
+            }));
+        }
+
+        long[] latencies = new long[0];
+        int errors = 0;
+        for (Future<Worker> future : futures) {
+            Worker worker = future.get();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + worker.count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            errors += worker.errors;
+        }
+        workers.shutdown();
+        Arrays.sort(latencies);
+        return new Result(latencies, errors, duration);
+    }
+
+    private static String authenticate(HttpClient http, String baseUrl) throws Exception {
+        post(http, baseUrl + "/api/auth/register", null,
+                "{\"username\":\"" + USERNAME + "\",\"email\":\"" + USERNAME
+                        + "@example.com\",\"password\":\"" + PASSWORD + "\"}");
+        String body = post(http, baseUrl + "/api/auth/login", null,
+                "{\"username\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"}");
+        Matcher matcher = TOKEN.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Login failed: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    private static String post(HttpClient http, String url, String token, String json)
+            throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                                                 .header("Content-Type", "application/json")
+                                                 .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    private record Target(String mode, String baseUrl) {
+
+        static Target parse(String arg) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected mode=baseUrl, got " + arg);
+            }
+            return new Target(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+    }
+
+    private static final class Worker {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private record Result(long[] sortedLatencies, int errors, Duration duration) {
+
+        double throughput() {
+            return sortedLatencies.length / (duration.toMillis() / 1000.0);
+        }
+
+        double percentile(double p) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.abysalto.mid.benchmark;
+
+import com.abysalto.mid.dto.response.ApiResponse;
+import com.abysalto.mid.dto.response.ProductPageDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the map-based product page representation with the typed
+ * {@link ProductPageDto} for a 100-product page: decoding an upstream payload
+ * and rendering a cached page. Run with the GC profiler to compare bytes
+ * allocated per operation:
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *      org.openjdk.jmh.Main ProductModelBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductModelBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder()
+                                                    .disable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+                                                    .build();
+
+    private byte[] upstreamJson;
+    private Map<String, Object> mapPage;
+    private ProductPageDto typedPage;
+
+    @Setup
+    public void setUp() {
+        List<Map<String, Object>> products = new ArrayList<>();
+        for (int i = 1; i <= PAGE_SIZE; i++) {
+            products.add(Map.ofEntries(
+                    Map.entry("id", i),
+                    Map.entry("title", "Product " + i),
+                    Map.entry("description", "A reasonably long description of product " + i
+                            + " as DummyJSON returns it for every item in the listing."),
+                    Map.entry("price", 9.99 + i),
+                    Map.entry("discountPercentage", 7.5),
+                    Map.entry("rating", 4.2),
+                    Map.entry("stock", 40 + i),
+                    Map.entry("brand", "Brand " + (i % 12)),
+                    Map.entry("category", "category-" + (i % 24)),
+                    Map.entry("thumbnail", "https://cdn.dummyjson.com/products/" + i + "/thumbnail.webp"),
+                    Map.entry("images", List.of(
+                            "https://cdn.dummyjson.com/products/" + i + "/1.webp",
+                            "https://cdn.dummyjson.com/products/" + i + "/2.webp")),
+                    Map.entry("shippingInformation", "Ships in 1 week"),
+                    Map.entry("warrantyInformation", "1 year warranty"),
+                    Map.entry("returnPolicy", "30 days return policy")));
+        }
+        upstreamJson = jsonMapper.writeValueAsBytes(Map.of(
+                "products", products, "total", 194, "skip", 0, "limit", PAGE_SIZE));
+        mapPage = decodeMap();
+        typedPage = decodeTyped();
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> decodeMap() {
+        return jsonMapper.readValue(upstreamJson, Map.class);
+    }
+
+    @Benchmark
+    public ProductPageDto decodeTyped() {
+        return jsonMapper.readValue(upstreamJson, ProductPageDto.class);
+    }
+
+    @Benchmark
+    public byte[] renderMap() {
+        return jsonMapper.writeValueAsBytes(ApiResponse.success(mapPage));
+    }
+
+    @Benchmark
+    public byte[] renderTyped() {
+        return jsonMapper.writeValueAsBytes(ApiResponse.success(typedPage));
+    }
+}
@@ -0,0 +1,68 @@
+package com.abysalto.mid.benchmark;
+
+import com.abysalto.mid.catalog.SuggestionIndex;
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.SuggestionDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a type-ahead lookup against a 100k-title catalog: one- and
+ * two-letter prefixes hit the precomputed top lists, longer ones take the
+ * bounded scan. Both should stay in the low microseconds regardless of
+ * catalog size:
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+ * java -cp target/test-classes:target/classes:$(cat cp.txt) \
+ *      org.openjdk.jmh.Main SuggestBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SuggestBenchmark {
+
+    private static final String[] WORDS = {"apple", "wireless", "pro", "max", "mini",
+            "leather", "classic", "red", "lipstick", "mascara", "laptop", "phone",
+            "watch", "lamp", "chair", "table", "organic", "sport", "shoes", "bag"};
+
+    @Param({"a", "pr", "lip", "wireless ph", "sport shoes 4"})
+    private String prefix;
+
+    private SuggestionIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        List<ProductDto> products = new ArrayList<>();
+        for (int id = 1; id <= 100_000; id++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + id;
+            products.add(new ProductDto(id, title, null, 10, 0, random.nextInt(500) / 100.0,
+                    10, "Brand " + random.nextInt(500), "misc", null, null, null, null, null));
+        }
+        index = SuggestionIndex.build(products);
+    }
+
+    @Benchmark
+    public List<SuggestionDto> suggest() {
+        return index.suggest(prefix, SuggestionIndex.MAX_SUGGESTIONS);
+    }
+}
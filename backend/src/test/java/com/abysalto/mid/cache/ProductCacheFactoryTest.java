@@ -0,0 +1,88 @@
+package com.abysalto.mid.cache;
+
+import com.abysalto.mid.config.ProductCacheProperties;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.Environment;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheFactoryTest {
+
+    private ProductCacheFactory factory;
+
+    @AfterEach
+    void tearDown() {
+        factory.shutdown();
+    }
+
+    @Test
+    void refreshesBeyondThePoolAreDroppedAndServeTheStaleValue() throws Exception {
+        Set<Thread> refreshThreads = refreshBeyondCapacity(new MockEnvironment(), 1);
+
+        assertThat(refreshThreads).noneMatch(Thread::isVirtual);
+    }
+
+    @Test
+    void virtualThreadRefreshesKeepTheSameCap() throws Exception {
+        Set<Thread> refreshThreads = refreshBeyondCapacity(new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", "true"), 2);
+
+        assertThat(refreshThreads).allMatch(Thread::isVirtual);
+    }
+
+    /**
+     * Fills a cap of two concurrent refreshes (one thread and one queue slot
+     * for the pool, two permits for virtual threads) and checks that a third
+     * stale key keeps its value instead of failing or waiting.
+     */
+    private Set<Thread> refreshBeyondCapacity(Environment environment, int threads)
+            throws Exception {
+        factory = new ProductCacheFactory(new ProductCacheProperties(threads, 1,
+                Map.of("products", new ProductCacheProperties.Policy(Duration.ofMillis(1),
+                        Duration.ofMinutes(5), 1 << 20))), environment);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch reloading = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Set<Thread> refreshThreads = ConcurrentHashMap.newKeySet();
+        LoadingCache<String, Integer> cache = factory.build("products", key -> {
+            if (loads.getAndIncrement() >= 3) {
+                refreshThreads.add(Thread.currentThread());
+                reloading.countDown();
+                release.await();
+            }
+            return loads.get();
+        });
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isEqualTo(2);
+        assertThat(cache.get("c")).isEqualTo(3);
+        Thread.sleep(10);
+
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(reloading.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(cache.get("b")).isEqualTo(2);
+        assertThat(cache.get("c")).isEqualTo(3);
+        release.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getIfPresent("b") == 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.getIfPresent("a")).isGreaterThan(3);
+        assertThat(cache.getIfPresent("b")).isGreaterThan(3);
+        assertThat(refreshThreads).isNotEmpty()
+                                  .allMatch(thread -> thread.getName()
+                                                            .startsWith("product-cache-refresh-"));
+        return refreshThreads;
+    }
+}
@@ -0,0 +1,44 @@
+package com.abysalto.mid.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RenderedResponseCacheTest {
+
+    @Test
+    void gzipIsNegotiatedByCodingTokenAndQuality() {
+        assertThat(RenderedResponseCache.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(RenderedResponseCache.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(RenderedResponseCache.acceptsGzip("x-gzip")).isTrue();
+        assertThat(RenderedResponseCache.acceptsGzip("*")).isTrue();
+
+        assertThat(RenderedResponseCache.acceptsGzip(null)).isFalse();
+        assertThat(RenderedResponseCache.acceptsGzip("identity")).isFalse();
+        assertThat(RenderedResponseCache.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(RenderedResponseCache.acceptsGzip("gzip; q=0.000, *")).isFalse();
+        assertThat(RenderedResponseCache.acceptsGzip("x-gzip-foo, deflate")).isFalse();
+        assertThat(RenderedResponseCache.acceptsGzip("br, *;q=0")).isFalse();
+    }
+
+    @Test
+    void eachContentCodingHasItsOwnStrongETag() {
+        RenderedResponseCache cache = new RenderedResponseCache(JsonMapper.builder().build(),
+                1 << 20, Duration.ofMinutes(1));
+        String body = "x".repeat(4096);
+
+        ResponseEntity<byte[]> identity = cache.respond("k", "identity", () -> body);
+        ResponseEntity<byte[]> gzip = cache.respond("k", "gzip", () -> body);
+
+        assertThat(gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(identity.getHeaders().getETag()).startsWith("\"").doesNotStartWith("W/");
+        assertThat(gzip.getHeaders().getETag()).isNotEqualTo(identity.getHeaders().getETag());
+        assertThat(cache.respond("k", "gzip", () -> body).getHeaders().getETag())
+                .isEqualTo(gzip.getHeaders().getETag());
+    }
+}
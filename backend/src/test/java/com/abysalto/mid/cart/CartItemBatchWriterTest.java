@@ -0,0 +1,89 @@
+package com.abysalto.mid.cart;
+
+import com.abysalto.mid.constant.CartOperationType;
+import com.abysalto.mid.dto.request.CartOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CartItemBatchWriter.class)
+class CartItemBatchWriterTest {
+
+    @Autowired
+    private CartItemBatchWriter writer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long cartId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (username, email, password) VALUES ('batch', 'batch@example.com', 'x')");
+        Long userId = jdbcTemplate.queryForObject(
+                "SELECT id FROM users WHERE username = 'batch'", Long.class);
+        jdbcTemplate.update("INSERT INTO carts (user_id, version) VALUES (?, 0)", userId);
+        cartId = jdbcTemplate.queryForObject(
+                "SELECT id FROM carts WHERE user_id = ?", Long.class, userId);
+    }
+
+    @Test
+    void runsOfOperationsKeepSequentialSemantics() {
+        writer.apply(cartId, List.of(
+                operation(CartOperationType.ADD, 1, 2),
+                operation(CartOperationType.ADD, 2, 1),
+                operation(CartOperationType.ADD, 1, 3),
+                operation(CartOperationType.UPDATE, 2, 4),
+                operation(CartOperationType.UPDATE, 3, 9),
+                operation(CartOperationType.REMOVE, 1, null),
+                operation(CartOperationType.ADD, 1, 1),
+                operation(CartOperationType.UPDATE, 2, 0)));
+
+        assertThat(quantities()).containsExactly(Map.entry(1, 1));
+    }
+
+    @Test
+    void repeatedAddsOfOneProductAccumulate() {
+        writer.apply(cartId, List.of(
+                operation(CartOperationType.ADD, 5, 1),
+                operation(CartOperationType.ADD, 5, 1),
+                operation(CartOperationType.ADD, 6, 2),
+                operation(CartOperationType.ADD, 5, 1)));
+
+        assertThat(quantities()).containsExactly(Map.entry(5, 3), Map.entry(6, 2));
+    }
+
+    private Map<Integer, Integer> quantities() {
+        Map<Integer, Integer> quantities = new TreeMap<>();
+        jdbcTemplate.query("SELECT product_id, quantity FROM cart_items WHERE cart_id = ?",
+                rs -> {
+                    quantities.put(rs.getInt(1), rs.getInt(2));
+                }, cartId);
+        return quantities;
+    }
+
+    private static CartOperation operation(CartOperationType type, int productId,
+            Integer quantity) {
+        CartOperation operation = new CartOperation();
+        operation.setType(type);
+        operation.setProductId(productId);
+        operation.setQuantity(quantity);
+        operation.setProductTitle("Product " + productId);
+        operation.setProductPrice(10.0);
+        return operation;
+    }
+}
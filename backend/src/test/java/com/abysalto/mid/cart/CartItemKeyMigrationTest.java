@@ -0,0 +1,80 @@
+package com.abysalto.mid.cart;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs without the test-managed transaction: DDL commits implicitly.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(CartItemKeyMigration.class)
+class CartItemKeyMigrationTest {
+
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO cart_items (cart_id, product_id, quantity) VALUES (?, ?, ?)";
+
+    @Autowired
+    private CartItemKeyMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long cartId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM cart_items");
+        jdbcTemplate.update("DELETE FROM carts");
+        jdbcTemplate.update("DELETE FROM user_favorites");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("INSERT INTO users (username, email, password) VALUES ('dup', 'dup@example.com', 'x')");
+        Long userId = jdbcTemplate.queryForObject(
+                "SELECT id FROM users WHERE username = 'dup'", Long.class);
+        jdbcTemplate.update("INSERT INTO carts (user_id, version) VALUES (?, 0)", userId);
+        cartId = jdbcTemplate.queryForObject(
+                "SELECT id FROM carts WHERE user_id = ?", Long.class, userId);
+    }
+
+    @AfterEach
+    void restoreKey() {
+        migration.migrate();
+    }
+
+    @Test
+    void mergesDuplicatesBeforeAddingTheMissingKey() {
+        assertThat(migration.hasKey()).isTrue();
+        jdbcTemplate.execute("ALTER TABLE cart_items DROP CONSTRAINT "
+                + CartItemKeyMigration.KEY_NAME);
+        jdbcTemplate.update(INSERT_ITEM_SQL, cartId, 1, 2);
+        jdbcTemplate.update(INSERT_ITEM_SQL, cartId, 1, 3);
+        jdbcTemplate.update(INSERT_ITEM_SQL, cartId, 2, 1);
+        jdbcTemplate.update(INSERT_ITEM_SQL, cartId, 1, 1);
+
+        migration.migrate();
+
+        assertThat(migration.hasKey()).isTrue();
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT quantity FROM cart_items WHERE cart_id = ? ORDER BY product_id",
+                Integer.class, cartId)).containsExactly(6, 1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT version FROM carts WHERE id = ?", Long.class, cartId)).isEqualTo(1);
+        assertThatThrownBy(() -> jdbcTemplate.update(INSERT_ITEM_SQL, cartId, 2, 1))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -0,0 +1,134 @@
+package com.abysalto.mid.cart;
+
+import com.abysalto.mid.dto.response.CartDelta;
+import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.dto.response.CartItemDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartUpdateHubTest {
+
+    private static final Pattern EVENT_NAME = Pattern.compile("event:(\\w+)");
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private CountDownLatch gate = new CountDownLatch(0);
+
+    private final CartUpdateHub hub = new CartUpdateHub(JsonMapper.builder().build(),
+            3, 2, Duration.ofMinutes(1), 2) {
+        @Override
+        SseEmitter newEmitter(long timeoutMillis) {
+            RecordingEmitter emitter = new RecordingEmitter(gate);
+            emitters.add(emitter);
+            return emitter;
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void fansDeltasOutToEveryConnectionOfTheUserOnly() throws Exception {
+        hub.subscribe("ana", () -> cart(1));
+        hub.subscribe("ana", () -> cart(1));
+        hub.subscribe("ben", () -> cart(1));
+        hub.subscribe("ana", () -> cart(1));
+
+        hub.onCartChanged(new CartChangedEvent("ana", delta(2)));
+        hub.onCartChanged(new CartChangedEvent("ana", CartDelta.cleared(1L, 3L)));
+
+        // At most two connections per user: the first one was closed
+        assertThat(hub.connectionCount()).isEqualTo(3);
+        for (RecordingEmitter emitter : List.of(emitters.get(1), emitters.get(3))) {
+            assertThat(emitter.next()).isEqualTo("snapshot");
+            assertThat(emitter.next()).isEqualTo("delta");
+            assertThat(emitter.next()).isEqualTo("delta");
+        }
+        assertThat(emitters.get(2).next()).isEqualTo("snapshot");
+        assertThat(emitters.get(2).events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(emitters.get(0).events).doesNotContain("delta");
+    }
+
+    @Test
+    void slowOrOutOfOrderStreamsAreToldToResync() throws Exception {
+        gate = new CountDownLatch(1);
+        hub.subscribe("ana", () -> cart(1));
+        RecordingEmitter slow = emitters.get(0);
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        for (long version = 2; version <= 8; version++) {
+            hub.onCartChanged(new CartChangedEvent("ana", delta(version)));
+        }
+        gate.countDown();
+
+        // Three deltas fit behind the snapshot being written; the fourth
+        // replaced the backlog with a resync and the rest were dropped
+        assertThat(slow.next()).isEqualTo("snapshot");
+        assertThat(slow.next()).isEqualTo("resync");
+        assertThat(slow.events.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+        hub.onCartChanged(new CartChangedEvent("ana", delta(9)));
+        assertThat(slow.next()).isEqualTo("delta");
+        hub.onCartChanged(new CartChangedEvent("ana", delta(5)));
+        assertThat(slow.next()).isEqualTo("resync");
+    }
+
+    private static CartDto cart(long version) {
+        return CartDto.builder().id(1L).version(version).items(List.of())
+                      .total(0.0).totalItems(0).build();
+    }
+
+    private static CartDelta delta(long version) {
+        CartItemDto item = CartItemDto.builder().productId(7).quantity((int) version)
+                                      .productPrice(1.0).subtotal((double) version).build();
+        return CartDelta.of(CartDto.builder().id(1L).version(version).items(List.of(item))
+                                   .total((double) version).totalItems((int) version).build(),
+                List.of(7, 9));
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch gate;
+
+        private RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            sending.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            StringBuilder text = new StringBuilder();
+            items.forEach(item -> text.append(item.getData()));
+            Matcher name = EVENT_NAME.matcher(text);
+            if (name.find()) {
+                events.add(name.group(1));
+            }
+        }
+
+        String next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.abysalto.mid.catalog;
+
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.ProductPageDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ListingIndexTest {
+
+    private static final List<ProductDto> PRODUCTS = List.of(
+            product(1, "Mascara", "beauty", 9.99, null),
+            product(2, "lipstick", "beauty", 12.5, "Chic"),
+            product(3, "iPhone", "smartphones", 899, "Apple"),
+            product(4, "AirPods", "mobile-accessories", 129, "Apple"),
+            product(5, "Eyeshadow", "beauty", 12.5, "Essence"),
+            product(6, "Galaxy", "smartphones", 799, "Samsung"));
+
+    @Test
+    void pagesAreSlicesOfThePreSortedOrderInEitherDirection() {
+        ListingIndex index = ListingIndex.build(PRODUCTS);
+
+        assertThat(ids(index.list(3, 0, "price", "asc", null))).containsExactly(1, 2, 5);
+        assertThat(ids(index.list(3, 3, "price", "asc", null))).containsExactly(4, 6, 3);
+        assertThat(ids(index.list(2, 0, "price", "desc", null))).containsExactly(3, 6);
+        assertThat(ids(index.list(0, 0, "title", "asc", null))).containsExactly(4, 5, 6, 3, 2, 1);
+        assertThat(ids(index.list(2, 0, "brand", "asc", null))).containsExactly(3, 4);
+        assertThat(ids(index.list(1, 0, "brand", "desc", null))).containsExactly(1);
+        assertThat(ids(index.list(2, 0, "unknown", "asc", null))).containsExactly(1, 2);
+
+        ProductPageDto beauty = index.listByCategory("beauty", 2, 0, "price", "desc", null);
+        assertThat(ids(beauty)).containsExactly(5, 2);
+        assertThat(beauty.total()).isEqualTo(3);
+        assertThat(index.listByCategory("toys", 2, 0, "id", "asc", null).products()).isEmpty();
+    }
+
+    @Test
+    void cursorsWalkTheWholeListingAndSurviveCatalogChanges() {
+        ListingIndex index = ListingIndex.build(PRODUCTS);
+        for (String order : List.of("asc", "desc")) {
+            List<Integer> walked = new ArrayList<>();
+            ProductPageDto page = index.list(2, 0, "price", order, null);
+            walked.addAll(ids(page));
+            while (page.nextCursor() != null) {
+                page = index.list(2, 0, "price", order, page.nextCursor());
+                walked.addAll(ids(page));
+            }
+            assertThat(walked).containsExactlyElementsOf(
+                    ids(index.list(0, 0, "price", order, null)));
+        }
+
+        ProductPageDto first = index.list(2, 0, "price", "asc", null);
+        assertThat(ids(first)).containsExactly(1, 2);
+        List<ProductDto> refreshed = new ArrayList<>(PRODUCTS.subList(2, PRODUCTS.size()));
+        refreshed.add(product(7, "Lip Balm", "beauty", 3, null));
+        ListingIndex next = ListingIndex.build(refreshed);
+
+        ProductPageDto resumed = next.list(2, 0, "price", "asc", first.nextCursor());
+        assertThat(ids(resumed)).containsExactly(5, 4);
+        assertThat(resumed.skip()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsCursorsOfAnotherSortOrder() {
+        ListingIndex index = ListingIndex.build(PRODUCTS);
+        String cursor = index.list(2, 0, "price", "asc", null).nextCursor();
+
+        assertThatThrownBy(() -> index.list(2, 0, "price", "desc", cursor))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.list(2, 0, "id", "asc", "not a cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Integer> ids(ProductPageDto page) {
+        return page.products().stream().map(ProductDto::id).toList();
+    }
+
+    private static ProductDto product(int id, String title, String category,
+            double price, String brand) {
+        return new ProductDto(id, title, null, price, 0, 4.5, 10, brand,
+                category, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,74 @@
+package com.abysalto.mid.catalog;
+
+import com.abysalto.mid.dto.response.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchIndexTest {
+
+    private static final List<ProductDto> PRODUCTS = List.of(
+            product(1, "Essence Mascara Lash Princess", "Essence", "beauty",
+                    "A popular mascara for volume and length."),
+            product(2, "Red Lipstick", "Chic Cosmetics", "beauty",
+                    "A classic red lipstick with a matte finish."),
+            product(3, "iPhone 13 Pro", "Apple", "smartphones",
+                    "Pro camera system with a red case option."),
+            product(4, "Apple AirPods", "Apple", "mobile-accessories",
+                    "Wireless earbuds that pair with your iPhone."));
+
+    @Test
+    void matchesTokenPrefixesAndRanksTitleHitsFirst() {
+        SearchIndex index = SearchIndex.build(PRODUCTS, null);
+
+        assertThat(ids(index.search("iph"))).containsExactly(3, 4);
+        assertThat(ids(index.search("red"))).containsExactly(2, 3);
+        assertThat(ids(index.search("APPLE air"))).containsExactly(4);
+        assertThat(ids(index.search("mascara volume"))).containsExactly(1);
+        assertThat(index.search("samsung")).isEmpty();
+    }
+
+    @Test
+    void wholeTokenMatchesOutrankPrefixMatches() {
+        SearchIndex index = SearchIndex.build(List.of(
+                product(1, "Professional Case", null, "accessories", null),
+                product(2, "Pro", null, "accessories", null)), null);
+
+        assertThat(ids(index.search("pro"))).containsExactly(2, 1);
+        assertThat(ids(index.search("pr"))).containsExactly(1, 2);
+        assertThat(ids(index.search("case"))).containsExactly(1);
+    }
+
+    @Test
+    void catalogRankingYieldsToExplicitSortAndRebuildsWithNewProducts() {
+        ProductCatalog catalog = new ProductCatalog();
+        catalog.replace(PRODUCTS, List.of());
+
+        assertThat(ids(catalog.list(10, 0, "id", "asc", "apple", null).products()))
+                .containsExactly(4, 3);
+        assertThat(ids(catalog.list(10, 0, "title", "desc", "apple", null).products()))
+                .containsExactly(3, 4);
+
+        List<ProductDto> next = new ArrayList<>(PRODUCTS.subList(0, 3));
+        next.add(product(5, "Apple Watch", "Apple", "mobile-accessories", null));
+        catalog.replace(next, List.of());
+
+        assertThat(ids(catalog.list(10, 0, "id", "asc", "apple wat", null).products()))
+                .containsExactly(5);
+        assertThat(ids(catalog.list(10, 0, "id", "asc", "airpods", null).products()))
+                .isEmpty();
+    }
+
+    private static List<Integer> ids(List<ProductDto> products) {
+        return products.stream().map(ProductDto::id).toList();
+    }
+
+    private static ProductDto product(int id, String title, String brand,
+            String category, String description) {
+        return new ProductDto(id, title, description, 10, 0, 4.5, 10, brand,
+                category, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,99 @@
+package com.abysalto.mid.catalog;
+
+import com.abysalto.mid.dto.response.ProductDto;
+import com.abysalto.mid.dto.response.SuggestionDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionIndexTest {
+
+    private static final String[] WORDS = {"apple", "apricot", "pro", "phone",
+            "professional", "max", "mini", "lip", "lipstick", "laptop", "lamp", "red"};
+
+    @Test
+    void ranksBrandsAndTitlesByPopularityAcrossWordStarts() {
+        SuggestionIndex index = SuggestionIndex.build(List.of(
+                product(1, "iPhone 13 Pro", "Apple", 4.2),
+                product(2, "Apple AirPods", "Apple", 4.8),
+                product(3, "Pro Camera Lens", "Lensmaster", 4.9)));
+
+        assertThat(index.suggest("app", 10)).extracting(SuggestionDto::text)
+                                            .containsExactly("Apple", "Apple AirPods");
+        assertThat(index.suggest(" PRO", 10)).extracting(SuggestionDto::text)
+                                             .containsExactly("Pro Camera Lens", "iPhone 13 Pro");
+        assertThat(index.suggest("iphone 13 p", 10)).singleElement()
+                                                    .extracting(SuggestionDto::productId)
+                                                    .isEqualTo(1);
+        assertThat(index.suggest("pro", 1)).hasSize(1);
+        assertThat(index.suggest("", 10)).isEmpty();
+        assertThat(index.suggest("zzz", 10)).isEmpty();
+    }
+
+    @Test
+    void precomputedPrefixesAgreeWithAFullScan() {
+        Random random = new Random(42);
+        List<ProductDto> products = new ArrayList<>();
+        for (int id = 1; id <= 3000; id++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + id;
+            products.add(product(id, title, "Brand " + random.nextInt(40),
+                    random.nextInt(500) / 100.0));
+        }
+        SuggestionIndex index = SuggestionIndex.build(products);
+
+        for (String prefix : List.of("a", "ap", "apr", "l", "li", "lip", "lips", "p",
+                "pro", "prof", "brand", "brand 1", "red l", "1", "29", "2999")) {
+            assertThat(index.suggest(prefix, 10)).as(prefix)
+                                                 .isEqualTo(bruteForce(products, prefix));
+        }
+    }
+
+    private static List<SuggestionDto> bruteForce(List<ProductDto> products, String prefix) {
+        List<Scored> all = new ArrayList<>();
+        Map<String, Scored> brands = new HashMap<>();
+        for (ProductDto product : products) {
+            long score = Math.round(product.rating() * 100);
+            all.add(new Scored(new SuggestionDto(product.title(), "product", product.id()), score));
+            brands.merge(product.brand(), new Scored(new SuggestionDto(product.brand(), "brand", null), score),
+                    (a, b) -> new Scored(a.suggestion(), a.score() + b.score()));
+        }
+        all.addAll(brands.values());
+        return all.stream()
+                  .filter(s -> matches(s.suggestion().text(), prefix))
+                  .sorted(Comparator.comparingLong((Scored s) -> -s.score())
+                                    .thenComparingInt(s -> s.suggestion().text().length())
+                                    .thenComparing(s -> s.suggestion().text()))
+                  .limit(10)
+                  .map(Scored::suggestion)
+                  .toList();
+    }
+
+    private static boolean matches(String text, String prefix) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(lower.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(lower.charAt(i - 1)));
+            if (wordStart && lower.startsWith(prefix, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ProductDto product(int id, String title, String brand, double rating) {
+        return new ProductDto(id, title, null, 10, 0, rating, 10, brand,
+                "misc", null, null, null, null, null);
+    }
+
+    private record Scored(SuggestionDto suggestion, long score) {
+    }
+}
@@ -0,0 +1,141 @@
+package com.abysalto.mid.client;
+
+import com.abysalto.mid.config.AppConfig;
+import com.abysalto.mid.exception.UpstreamUnavailableException;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DummyJsonClientTest {
+
+    private static final int CALLERS = 16;
+    private static final StubProduct STUB = new StubProduct(1, "Stub");
+
+    private HttpServer server;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private volatile boolean upstreamDown;
+    private DummyJsonClient client;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/products/1", exchange -> {
+            upstreamCalls.incrementAndGet();
+            if (upstreamDown) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"id\":1,\"title\":\"Stub\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        client = client(Duration.ofSeconds(30));
+    }
+
+    private DummyJsonClient client(Duration openDuration) {
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        return new DummyJsonClient(new AppConfig().dummyJsonRestClient(
+                baseUrl, Duration.ofSeconds(1), Duration.ofSeconds(5)),
+                new CircuitBreaker(2, openDuration), 4,
+                Duration.ofMillis(200), 100);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void concurrentIdenticalRequestsAreCoalescedIntoOneUpstreamCall() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<StubProduct>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return client.get("/products/1", StubProduct.class);
+            }));
+        }
+        start.countDown();
+
+        for (Future<StubProduct> result : results) {
+            assertThat(result.get()).isEqualTo(STUB);
+        }
+        callers.shutdown();
+
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void sequentialRequestsEachReachUpstream() {
+        client.get("/products/1", StubProduct.class);
+        client.get("/products/1", StubProduct.class);
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void outageServesLastKnownGoodAndOpensCircuit() {
+        client.get("/products/1", StubProduct.class);
+        upstreamDown = true;
+
+        assertThat(client.get("/products/1", StubProduct.class)).isEqualTo(STUB);
+        assertThat(client.get("/products/1", StubProduct.class)).isEqualTo(STUB);
+        assertThat(client.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(client.get("/products/1", StubProduct.class)).isEqualTo(STUB);
+        assertThat(upstreamCalls).hasValue(3);
+        assertThatThrownBy(() -> client.get("/products/2", StubProduct.class))
+                .isInstanceOf(UpstreamUnavailableException.class);
+    }
+
+    @Test
+    void probeFailingBeforeTheCallKeepsTheCircuitRecoverable() throws Exception {
+        client = client(Duration.ofMillis(50));
+        upstreamDown = true;
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> client.get("/products/1", StubProduct.class))
+                    .isInstanceOf(UpstreamUnavailableException.class);
+        }
+        assertThat(client.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        Thread.sleep(100);
+
+        // The half-open probe dies building the URI, not upstream
+        assertThatThrownBy(() -> client.get("/products/search?q={x}", StubProduct.class))
+                .isInstanceOf(IllegalArgumentException.class);
+        upstreamDown = false;
+
+        assertThat(client.get("/products/1", StubProduct.class)).isEqualTo(STUB);
+        assertThat(client.getCircuitBreaker().getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(client.getAvailableBulkheadPermits()).isEqualTo(4);
+    }
+
+    private record StubProduct(int id, String title) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.abysalto.mid.dto.response;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartVersionTest {
+
+    @Test
+    void ifNoneMatchComparesWholeEntityTags() {
+        CartVersion version = new CartVersion(1L, 2L);
+
+        assertThat(version.etag(3)).isEqualTo("\"1-2-3\"");
+        assertThat(version.matches("\"1-2-3\"", 3)).isTrue();
+        assertThat(version.matches("\"9-9-9\" ,  W/\"1-2-3\"", 3)).isTrue();
+        assertThat(version.matches("*", 3)).isTrue();
+
+        assertThat(version.matches("\"11-2-30\"", 3)).isFalse();
+        assertThat(version.matches("\"1-2-3\"", 4)).isFalse();
+        assertThat(version.matches("", 3)).isFalse();
+        assertThat(version.matches(null, 3)).isFalse();
+    }
+}
@@ -0,0 +1,103 @@
+package com.abysalto.mid.favorites;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FavoriteStore.class)
+class FavoriteStoreTest {
+
+    @Autowired
+    private FavoriteStore store;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (username, email, password) VALUES ('fav', 'fav@example.com', 'x')");
+        userId = jdbcTemplate.queryForObject(
+                "SELECT id FROM users WHERE username = 'fav'", Long.class);
+    }
+
+    @Test
+    void addsAndRemovesAreIdempotentAndKeepTheCachedSetInStep() {
+        assertThat(store.get(userId).size()).isZero();
+
+        assertThat(store.add(userId, 42)).isTrue();
+        assertThat(store.add(userId, 7)).isTrue();
+        assertThat(store.add(userId, 42)).isFalse();
+        assertThat(store.remove(userId, 99)).isFalse();
+        assertThat(store.add(userId, 19)).isTrue();
+        assertThat(store.remove(userId, 19)).isTrue();
+
+        assertThat(store.get(userId).toArray()).containsExactly(7, 42);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT product_id FROM user_favorites WHERE user_id = ? ORDER BY product_id",
+                Integer.class, userId)).containsExactly(7, 42);
+    }
+
+    @Test
+    void pagesAreSlicesInProductIdOrder() {
+        for (int id : new int[] {30, 10, 50, 20, 40}) {
+            store.add(userId, id);
+        }
+        FavoriteIds ids = store.get(userId);
+
+        assertThat(ids.page(1, 2)).containsExactly(20, 30);
+        assertThat(ids.page(4, 10)).containsExactly(50);
+        assertThat(ids.page(9, 10)).isEmpty();
+        assertThat(ids.contains(40)).isTrue();
+        assertThat(ids.contains(45)).isFalse();
+    }
+
+    @Test
+    void aLoadThatMissedAConcurrentAddIsNotCached() {
+        FavoriteStore[] racing = new FavoriteStore[1];
+        racing[0] = new FavoriteStore(new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler handler, Object... args) {
+                super.query(sql, handler, args);
+                // Lands after the read, before its result is cached
+                racing[0].add(userId, 5);
+            }
+        }, Duration.ofMinutes(1), 100);
+
+        assertThat(racing[0].get(userId).toArray()).isEmpty();
+        assertThat(racing[0].get(userId).toArray()).containsExactly(5);
+    }
+
+    @Test
+    void anotherUsersWriteDoesNotDropTheLoad() {
+        jdbcTemplate.update("INSERT INTO users (username, email, password) VALUES ('other', 'other@example.com', 'x')");
+        long otherId = jdbcTemplate.queryForObject(
+                "SELECT id FROM users WHERE username = 'other'", Long.class);
+        FavoriteStore[] racing = new FavoriteStore[1];
+        racing[0] = new FavoriteStore(new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public void query(String sql, RowCallbackHandler handler, Object... args) {
+                super.query(sql, handler, args);
+                racing[0].add(otherId, 5);
+            }
+        }, Duration.ofMinutes(1), 100);
+
+        FavoriteIds loaded = racing[0].get(userId);
+
+        assertThat(racing[0].get(userId)).isSameAs(loaded);
+    }
+}
@@ -0,0 +1,120 @@
+package com.abysalto.mid.pricing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "app.pricing.reconcile-batch-size=2")
+@Import({CartItemReconciler.class, CartItemReconcilerTest.Prices.class})
+class CartItemReconcilerTest {
+
+    @Autowired
+    private CartItemReconciler reconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PriceIndex priceIndex;
+
+    private Long staleCart;
+    private Long currentCart;
+
+    @BeforeEach
+    void setUp() {
+        // The sweep covers the whole table; rolled back with the test.
+        jdbcTemplate.update("DELETE FROM cart_items");
+        staleCart = cart("stale");
+        currentCart = cart("current");
+        item(staleCart, 1, "Old title", 10.0, "1.png");
+        item(staleCart, 2, "Product 2", 5.0, "2.png");
+        item(staleCart, 3, "Product 3", 1.0, "3.png");
+        item(currentCart, 1, "Product 1", 19.99, "1.png");
+        item(currentCart, 99, "Delisted", 7.0, null);
+        // A fresh index generation, so the shared reconciler sweeps again
+        priceIndex.rebuild();
+    }
+
+    @Test
+    void rewritesStaleRowsAndBumpsTheirCarts() {
+        assertThat(reconciler.reconcile()).isEqualTo(2);
+
+        Map<String, Object> first = row(staleCart, 1);
+        assertThat(first.get("product_title")).isEqualTo("Product 1");
+        assertThat(((Number) first.get("product_price")).doubleValue()).isEqualTo(19.99);
+        assertThat(((Number) row(staleCart, 2).get("product_price")).doubleValue())
+                .isEqualTo(4.5);
+        assertThat(row(currentCart, 99).get("product_title")).isEqualTo("Delisted");
+        assertThat(version(staleCart)).isEqualTo(1);
+        assertThat(version(currentCart)).isZero();
+
+        assertThat(reconciler.reconcile()).isZero();
+        assertThat(version(staleCart)).isEqualTo(1);
+    }
+
+    @Test
+    void passesOnlyRunAfterTheIndexChanged() {
+        reconciler.reconcile();
+        item(currentCart, 2, "Product 2", 9.0, "2.png");
+
+        // No catalog change since the last pass: the table is not scanned
+        assertThat(reconciler.reconcile()).isZero();
+
+        priceIndex.rebuild();
+        assertThat(reconciler.reconcile()).isEqualTo(1);
+        assertThat(((Number) row(currentCart, 2).get("product_price")).doubleValue())
+                .isEqualTo(4.5);
+    }
+
+    private Long cart(String username) {
+        jdbcTemplate.update("INSERT INTO users (username, email, password) VALUES (?, ?, 'x')",
+                username, username + "@example.com");
+        Long userId = jdbcTemplate.queryForObject(
+                "SELECT id FROM users WHERE username = ?", Long.class, username);
+        jdbcTemplate.update("INSERT INTO carts (user_id, version) VALUES (?, 0)", userId);
+        return jdbcTemplate.queryForObject(
+                "SELECT id FROM carts WHERE user_id = ?", Long.class, userId);
+    }
+
+    private void item(Long cartId, int productId, String title, double price,
+            String thumbnail) {
+        jdbcTemplate.update("INSERT INTO cart_items (cart_id, product_id, quantity, "
+                        + "product_title, product_price, product_thumbnail) VALUES (?, ?, 1, ?, ?, ?)",
+                cartId, productId, title, price, thumbnail);
+    }
+
+    private Map<String, Object> row(Long cartId, int productId) {
+        return jdbcTemplate.queryForMap("SELECT product_title, product_price FROM cart_items "
+                + "WHERE cart_id = ? AND product_id = ?", cartId, productId);
+    }
+
+    private long version(Long cartId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM carts WHERE id = ?",
+                Long.class, cartId);
+    }
+
+    @TestConfiguration
+    static class Prices {
+
+        @Bean
+        PriceIndex priceIndex() {
+            return PriceIndexTest.index(PriceIndexTest.product(1, 19.99),
+                    PriceIndexTest.product(2, 4.5), PriceIndexTest.product(3, 1.0));
+        }
+    }
+}
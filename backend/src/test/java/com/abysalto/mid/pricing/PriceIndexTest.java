@@ -0,0 +1,82 @@
+package com.abysalto.mid.pricing;
+
+import com.abysalto.mid.catalog.ProductCatalog;
+import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.dto.response.CartItemDto;
+import com.abysalto.mid.dto.response.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceIndexTest {
+
+    @Test
+    void totalsAreExactInCents() {
+        PriceIndex index = index(product(1, 19.99), product(2, 0.1), product(3, 0.2));
+
+        CartDto cart = index.newCart()
+                            .add(10L, 1, 3, "stale", 5.0, null)
+                            .add(11L, 2, 1, null, null, null)
+                            .add(12L, 3, 1, null, null, null)
+                            .toDto(7L, 4L);
+
+        assertThat(cart.getItems()).extracting(CartItemDto::getSubtotal)
+                                   .containsExactly(59.97, 0.1, 0.2);
+        assertThat(cart.getTotal()).isEqualTo(60.27);
+        assertThat(cart.getTotalItems()).isEqualTo(5);
+    }
+
+    @Test
+    void catalogValuesReplaceStoredSnapshot() {
+        PriceIndex index = index(product(1, 12.5));
+
+        CartDto cart = index.newCart()
+                            .add(10L, 1, 2, "Old title", 9.99, "old.png")
+                            .add(11L, 99, 2, "Delisted", 3.335, "gone.png")
+                            .toDto(7L, 4L);
+
+        CartItemDto live = cart.getItems().get(0);
+        assertThat(live.getProductTitle()).isEqualTo("Product 1");
+        assertThat(live.getProductPrice()).isEqualTo(12.5);
+        assertThat(live.getProductThumbnail()).isEqualTo("1.png");
+        CartItemDto unknown = cart.getItems().get(1);
+        assertThat(unknown.getProductTitle()).isEqualTo("Delisted");
+        assertThat(unknown.getProductPrice()).isEqualTo(3.34);
+        assertThat(cart.getTotal()).isEqualTo(31.68);
+    }
+
+    @Test
+    void everyRebuildStartsANewGeneration() {
+        PriceIndex index = index(product(1, 12.5));
+        long before = index.generation();
+
+        index.rebuild();
+
+        assertThat(index.generation()).isGreaterThan(before);
+    }
+
+    @Test
+    void convertsDecimalsWithoutBinaryDrift() {
+        assertThat(PriceIndex.toCents(19.99)).isEqualTo(1999);
+        assertThat(PriceIndex.toCents(1.005)).isEqualTo(101);
+        assertThat(PriceIndex.toCents(0.1 + 0.2)).isEqualTo(30);
+    }
+
+    static PriceIndex index(ProductDto... products) {
+        PriceIndex index = new PriceIndex(new ProductCatalog() {
+            @Override
+            public List<ProductDto> products() {
+                return List.of(products);
+            }
+        });
+        index.rebuild();
+        return index;
+    }
+
+    static ProductDto product(int id, double price) {
+        return new ProductDto(id, "Product " + id, null, price, 0, 0, 1, null,
+                null, id + ".png", null, null, null, null);
+    }
+}
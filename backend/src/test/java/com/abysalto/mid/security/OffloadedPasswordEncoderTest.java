@@ -0,0 +1,67 @@
+package com.abysalto.mid.security;
+
+import com.abysalto.mid.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffloadedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private OffloadedPasswordEncoder encoder;
+
+    @AfterEach
+    void shutdown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void legacyHashesStillMatchAndAreMarkedForUpgrade() {
+        encoder = new OffloadedPasswordEncoder(registry, "bcrypt", 10, 1, 4);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertThat(encoder.matches("secret", legacy)).isTrue();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+
+        String current = encoder.encode("secret");
+        assertThat(current).startsWith("{bcrypt}");
+        assertThat(encoder.upgradeEncoding(current)).isFalse();
+        assertThat(registry.get("auth.password.hash").tag("operation", "encode")
+                           .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void saturatedQueueRejectsInsteadOfWaiting() throws Exception {
+        encoder = new OffloadedPasswordEncoder(registry, "bcrypt", 12, 1, 1);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            results.add(callers.submit(() -> encoder.encode("secret")));
+        }
+
+        int rejected = 0;
+        for (Future<String> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(PasswordHashingBusyException.class);
+                rejected++;
+            }
+        }
+        callers.shutdown();
+
+        assertThat(rejected).isGreaterThan(0);
+        assertThat(registry.get("auth.password.rejected").counter().count())
+                .isEqualTo(rejected);
+    }
+}
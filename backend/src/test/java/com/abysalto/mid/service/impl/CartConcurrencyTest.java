@@ -0,0 +1,172 @@
+package com.abysalto.mid.service.impl;
+
+import com.abysalto.mid.cache.UserIdentityCache;
+import com.abysalto.mid.cart.CartItemBatchWriter;
+import com.abysalto.mid.cart.CartReadModel;
+import com.abysalto.mid.catalog.ProductCatalog;
+import com.abysalto.mid.dto.request.AddItem;
+import com.abysalto.mid.dto.request.UpdateQuantity;
+import com.abysalto.mid.dto.response.CartDto;
+import com.abysalto.mid.dto.response.CartItemDto;
+import com.abysalto.mid.entity.User;
+import com.abysalto.mid.pricing.PriceIndex;
+import com.abysalto.mid.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers one cart from many threads through the set-based write path.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CartServiceImpl.class, CartReadModel.class, CartItemBatchWriter.class,
+        UserIdentityCache.class, PriceIndex.class, ProductCatalog.class})
+class CartConcurrencyTest {
+
+    private static final String USERNAME = "concurrent-cart";
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 25;
+
+    @Autowired
+    private CartServiceImpl cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserIdentityCache identityCache;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM cart_items");
+        jdbcTemplate.update("DELETE FROM carts");
+        jdbcTemplate.update("DELETE FROM user_favorites");
+        jdbcTemplate.update("DELETE FROM users");
+        identityCache.invalidate(USERNAME);
+        userRepository.save(User.builder().username(USERNAME)
+                                .email(USERNAME + "@example.com")
+                                .password("{noop}secret").build());
+        cartService.clearCart(USERNAME);
+        cartService.getCart(USERNAME);
+    }
+
+    @Test
+    void concurrentAddsOfOneProductKeepOneRowAndEveryUnit() throws Exception {
+        long versionBefore = cartService.getCart(USERNAME).getVersion();
+
+        hammer(thread -> cartService.addItem(USERNAME, item(42, 1)));
+
+        CartDto cart = cartService.getCart(USERNAME);
+        assertThat(cart.getItems()).singleElement()
+                                   .extracting(CartItemDto::getQuantity)
+                                   .isEqualTo(THREADS * ADDS_PER_THREAD);
+        assertThat(cart.getVersion())
+                .isEqualTo(versionBefore + THREADS * ADDS_PER_THREAD);
+    }
+
+    @Test
+    void concurrentMixedWritesLeaveConsistentRows() throws Exception {
+        hammer(thread -> {
+            int productId = thread % 4;
+            cartService.addItem(USERNAME, item(productId, 2));
+            UpdateQuantity update = new UpdateQuantity();
+            update.setQuantity(1);
+            cartService.updateItemQuantity(USERNAME, productId, update);
+            if (thread % 2 == 0) {
+                cartService.removeItem(USERNAME, productId);
+            }
+        });
+
+        CartDto cart = cartService.getCart(USERNAME);
+        assertThat(cart.getItems()).extracting(CartItemDto::getProductId)
+                                   .doesNotHaveDuplicates();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cart_items", Integer.class))
+                .isEqualTo(cart.getItems().size());
+    }
+
+    @Test
+    void concurrentFirstUseCreatesOneCart() throws Exception {
+        jdbcTemplate.update("DELETE FROM carts");
+        identityCache.invalidate(USERNAME);
+
+        hammer(thread -> cartService.addItem(USERNAME, item(thread, 1)));
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM carts", Integer.class)).isEqualTo(1);
+        assertThat(cartService.getCart(USERNAME).getItems()).hasSize(THREADS);
+    }
+
+    @Test
+    void staleIdentityFallsBackToTheExistingCart() {
+        Long cartId = cartService.getCart(USERNAME).getId();
+        // Another node created the cart after this one cached "no cart"
+        jdbcTemplate.update("DELETE FROM carts");
+        identityCache.invalidate(USERNAME);
+        identityCache.resolve(USERNAME);
+        jdbcTemplate.update("INSERT INTO carts (id, user_id, version) "
+                + "SELECT ?, id, 0 FROM users WHERE username = ?", cartId, USERNAME);
+
+        cartService.addItem(USERNAME, item(1, 1));
+
+        assertThat(cartService.getCart(USERNAME).getId()).isEqualTo(cartId);
+        assertThat(identityCache.resolve(USERNAME).cartId()).isEqualTo(cartId);
+    }
+
+    private void hammer(ThreadTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            results.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ADDS_PER_THREAD; i++) {
+                    task.run(thread);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        pool.shutdown();
+    }
+
+    private static AddItem item(int productId, int quantity) {
+        AddItem item = new AddItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setProductTitle("Product " + productId);
+        item.setProductPrice(10.0);
+        return item;
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,201 @@
+package com.abysalto.mid.service.impl;
+
+import com.abysalto.mid.cache.UserIdentityCache;
+import com.abysalto.mid.cart.CartItemBatchWriter;
+import com.abysalto.mid.cart.CartReadModel;
+import com.abysalto.mid.catalog.ProductCatalog;
+import com.abysalto.mid.dto.request.AddItem;
+import com.abysalto.mid.dto.request.UpdateQuantity;
+import com.abysalto.mid.entity.User;
+import com.abysalto.mid.favorites.FavoriteStore;
+import com.abysalto.mid.pricing.PriceIndex;
+import com.abysalto.mid.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of SQL statements each use case issues, so a fetch plan
+ * that starts dragging in another association fails here. Runs without the
+ * test-managed transaction, like a request would. Hibernate statistics
+ * see only statements issued through the session; paths that use plain
+ * JDBC are counted at the {@link DataSource}.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({CartServiceImpl.class, CartReadModel.class, CartItemBatchWriter.class,
+        UserIdentityCache.class, UserServiceImpl.class,
+        UserDetailsServiceImpl.class, PriceIndex.class, ProductCatalog.class,
+        FavoriteStore.class, FetchPlanQueryCountTest.StatementCounter.class})
+class FetchPlanQueryCountTest {
+
+    private static final String USERNAME = "query-count";
+    private static final AtomicInteger JDBC_STATEMENTS = new AtomicInteger();
+
+    @Autowired
+    private CartServiceImpl cartService;
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserIdentityCache identityCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM cart_items");
+        jdbcTemplate.update("DELETE FROM carts");
+        jdbcTemplate.update("DELETE FROM user_favorites");
+        jdbcTemplate.update("DELETE FROM users");
+        identityCache.invalidate(USERNAME);
+        User user = userRepository.save(User.builder().username(USERNAME)
+                                            .email(USERNAME + "@example.com")
+                                            .password("{noop}secret")
+                                            .build());
+        jdbcTemplate.update("INSERT INTO user_favorites (user_id, product_id) VALUES (?, 8), (?, 7)",
+                user.getId(), user.getId());
+        cartService.addItem(USERNAME, item(1, 2));
+        cartService.addItem(USERNAME, item(2, 1));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        JDBC_STATEMENTS.set(0);
+    }
+
+    @Test
+    void authenticationLoadsOnlyCredentials() {
+        userDetailsService.loadUserByUsername(USERNAME);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void currentUserLoadsNoFavoriteCollection() {
+        assertThat(userService.getCurrentUser(USERNAME).getFavoriteProductIds())
+                .containsExactly(7, 8);
+
+        // the user row; favorite ids come from FavoriteStore over plain JDBC
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    @Test
+    void cartReadUsesNoEntities() {
+        assertThat(cartService.getCart(USERNAME).getItems()).hasSize(2);
+
+        // the cart id comes from the identity cache; one JDBC read of the items
+        assertThat(JDBC_STATEMENTS).hasValue(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void cartUpdateIsSetBased() {
+        UpdateQuantity update = new UpdateQuantity();
+        update.setQuantity(5);
+        cartService.updateItemQuantity(USERNAME, 1, update);
+
+        // update item, bump version; ids come from the identity cache and
+        // the read-back is plain JDBC
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void cartAddIsOneUpsert() {
+        cartService.addItem(USERNAME, item(1, 1));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    private static AddItem item(int productId, int quantity) {
+        AddItem item = new AddItem();
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        item.setProductTitle("Product " + productId);
+        item.setProductPrice(10.0);
+        return item;
+    }
+
+    /** Counts every statement prepared on a connection from the pool. */
+    @TestConfiguration
+    static class StatementCounter {
+
+        private static final Set<String> PREPARING =
+                Set.of("createStatement", "prepareStatement", "prepareCall");
+
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String name) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return counting(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                        if (PREPARING.contains(method.getName())) {
+                            JDBC_STATEMENTS.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
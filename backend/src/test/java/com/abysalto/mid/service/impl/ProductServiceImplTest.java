@@ -0,0 +1,118 @@
+package com.abysalto.mid.service.impl;
+
+import com.abysalto.mid.cache.ProductCacheFactory;
+import com.abysalto.mid.catalog.ProductCatalog;
+import com.abysalto.mid.client.CircuitBreaker;
+import com.abysalto.mid.client.DummyJsonClient;
+import com.abysalto.mid.config.AppConfig;
+import com.abysalto.mid.config.ProductCacheProperties;
+import com.abysalto.mid.dto.response.ProductDto;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductServiceImplTest {
+
+    private static final int FETCH_THREADS = 2;
+
+    private HttpServer server;
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private ProductCacheFactory cacheFactory;
+    private ProductServiceImpl service;
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/products/", exchange -> {
+            upstreamCalls.incrementAndGet();
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            int id = Integer.parseInt(exchange.getRequestURI().getPath()
+                                              .substring("/products/".length()));
+            if (id > 10) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = ("{\"id\":" + id + ",\"title\":\"Product " + id + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        DummyJsonClient client = new DummyJsonClient(new AppConfig().dummyJsonRestClient(
+                baseUrl, Duration.ofSeconds(1), Duration.ofSeconds(5)),
+                new CircuitBreaker(5, Duration.ofSeconds(30)), 16,
+                Duration.ofMillis(200), 100);
+        ProductCacheProperties.Policy policy = new ProductCacheProperties.Policy(
+                Duration.ofMinutes(5), Duration.ofMinutes(30), 1 << 20);
+        cacheFactory = new ProductCacheFactory(new ProductCacheProperties(1, 4,
+                Map.of("products", policy, "product", policy,
+                        "categories", policy, "productsByCategory", policy)),
+                new StandardEnvironment());
+        service = new ProductServiceImpl(client, new ProductCatalog(), cacheFactory,
+                5, FETCH_THREADS);
+    }
+
+    @AfterEach
+    void stopStub() {
+        service.shutdown();
+        cacheFactory.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void batchKeepsRequestOrderAndFetchesEachMissOnce() {
+        List<ProductDto> products = service.getProductsByIds(List.of(3, 1, 99, 3, 2));
+
+        assertThat(products).extracting(ProductDto::id).containsExactly(3, 1, 3, 2);
+        assertThat(upstreamCalls).hasValue(4);
+        assertThat(peakInFlight.get()).isBetween(2, FETCH_THREADS);
+    }
+
+    @Test
+    void batchFillsThePerIdCache() {
+        service.getProductById(1);
+        service.getProductsByIds(List.of(1, 2));
+        int calls = upstreamCalls.get();
+
+        assertThat(service.getProductById(2).title()).isEqualTo("Product 2");
+        assertThat(service.getProductsByIds(List.of(2, 1))).extracting(ProductDto::id)
+                                                          .containsExactly(2, 1);
+        assertThat(upstreamCalls).hasValue(calls);
+        assertThat(calls).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsOversizedBatches() {
+        assertThatThrownBy(() -> service.getProductsByIds(List.of(1, 2, 3, 4, 5, 6)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(upstreamCalls).hasValue(0);
+    }
+}
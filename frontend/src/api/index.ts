@@ -3,10 +3,13 @@ import type {
   ApiResponse,
   AuthDto,
   UserDto,
+  FavoriteStatus,
   CartDto,
+  CartDelta,
   ProductDto,
   ProductListDto,
   CategoryDto,
+  SuggestionDto,
 } from '../dto';
 import type { Login, Register, AddItem, UpdateQuantityRequest } from '../dto';
 
@@ -47,10 +50,13 @@ export const userApi = {
   getMe: (): Promise<AxiosResponse<ApiResponse<UserDto>>> =>
     api.get('/users/me'),
 
-  addFavorite: (productId: number): Promise<AxiosResponse<ApiResponse<UserDto>>> =>
+  getFavorites: (params?: { limit?: number; skip?: number }): Promise<AxiosResponse<ApiResponse<ProductListDto>>> =>
+    api.get('/users/me/favorites', { params }),
+
+  addFavorite: (productId: number): Promise<AxiosResponse<ApiResponse<FavoriteStatus>>> =>
     api.post(`/users/favorites/${productId}`),
 
-  removeFavorite: (productId: number): Promise<AxiosResponse<ApiResponse<UserDto>>> =>
+  removeFavorite: (productId: number): Promise<AxiosResponse<ApiResponse<FavoriteStatus>>> =>
     api.delete(`/users/favorites/${productId}`),
 };
 
@@ -61,6 +67,12 @@ export const productApi = {
   getById: (id: number): Promise<AxiosResponse<ApiResponse<ProductDto>>> =>
     api.get(`/products/${id}`),
 
+  getByIds: (ids: number[]): Promise<AxiosResponse<ApiResponse<ProductDto[]>>> =>
+    api.get('/products/batch', { params: { ids: ids.join(',') } }),
+
+  suggest: (prefix: string): Promise<AxiosResponse<ApiResponse<SuggestionDto[]>>> =>
+    api.get('/products/suggest', { params: { prefix } }),
+
   getCategories: (): Promise<AxiosResponse<ApiResponse<{ categories: CategoryDto[] }>>> =>
     api.get('/products/categories'),
 
@@ -90,3 +102,50 @@ export const cartApi = {
   clearCart: (): Promise<AxiosResponse<ApiResponse<void>>> =>
     api.delete('/cart'),
 };
+
+export interface CartStreamHandlers {
+  onSnapshot: (cart: CartDto) => void;
+  onDelta: (delta: CartDelta) => void;
+  onResync: () => void;
+}
+
+/**
+ * Follows GET /api/cart/stream until it ends or `signal` aborts. Uses fetch
+ * rather than EventSource, which cannot send the Authorization header.
+ */
+export const openCartStream = async (
+  handlers: CartStreamHandlers,
+  signal: AbortSignal
+): Promise<void> => {
+  const token = localStorage.getItem('token');
+  const res = await fetch('/api/cart/stream', {
+    headers: {
+      Accept: 'text/event-stream',
+      ...(token && { Authorization: `Bearer ${token}` }),
+    },
+    signal,
+  });
+  if (!res.ok || !res.body) throw new Error(`Cart stream failed: ${res.status}`);
+
+  const reader = res.body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = '';
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) return;
+    buffer += value;
+    let end: number;
+    while ((end = buffer.indexOf('\n\n')) >= 0) {
+      const block = buffer.slice(0, end);
+      buffer = buffer.slice(end + 2);
+      let event = 'message';
+      let data = '';
+      for (const line of block.split('\n')) {
+        if (line.startsWith('event:')) event = line.slice(6).trim();
+        else if (line.startsWith('data:')) data += line.slice(5);
+      }
+      if (event === 'snapshot') handlers.onSnapshot(JSON.parse(data));
+      else if (event === 'delta') handlers.onDelta(JSON.parse(data));
+      else if (event === 'resync') handlers.onResync();
+    }
+  }
+};
@@ -1,7 +1,7 @@
 import React, { createContext, useContext, useState, useCallback, useEffect, ReactNode } from 'react';
-import { cartApi } from '../api';
+import { cartApi, openCartStream } from '../api';
 import { useAuth } from './AuthContext';
-import type { CartDto, ProductDto } from '../dto';
+import type { CartDto, CartDelta, ProductDto } from '../dto';
 
 interface CartContextType {
   cart: CartDto;
@@ -15,6 +15,26 @@ interface CartContextType {
 
 const emptyCart: CartDto = { id: 0, items: [], total: 0, totalItems: 0 };
 
+const STREAM_RETRY_MS = 3000;
+
+const applyDelta = (cart: CartDto, delta: CartDelta): CartDto => {
+  // Deltas already contained in the cart we hold are skipped
+  if (cart.version !== undefined && delta.version <= cart.version) return cart;
+  const changed = new Map(delta.items.map((item) => [item.productId, item]));
+  const removed = new Set(delta.removed);
+  const items = delta.cleared ? [] : cart.items
+    .filter((item) => !removed.has(item.productId))
+    .map((item) => changed.get(item.productId) ?? item);
+  if (!delta.cleared) {
+    const known = new Set(items.map((item) => item.productId));
+    delta.items.forEach((item) => { if (!known.has(item.productId)) items.push(item); });
+  }
+  return {
+    id: delta.cartId, version: delta.version, items,
+    total: delta.total, totalItems: delta.totalItems,
+  };
+};
+
 const CartContext = createContext<CartContextType | null>(null);
 
 export const CartProvider = ({ children }: { children: ReactNode }) => {
@@ -39,6 +59,27 @@ export const CartProvider = ({ children }: { children: ReactNode }) => {
     fetchCart();
   }, [fetchCart]);
 
+  // Live updates from other tabs and devices; reconnects after the server
+  // closes the stream or the connection drops.
+  useEffect(() => {
+    if (!isAuthenticated) return;
+    const controller = new AbortController();
+    let retry: ReturnType<typeof setTimeout>;
+    const connect = (): void => {
+      openCartStream({
+        onSnapshot: setCart,
+        onDelta: (delta) => setCart((current) => applyDelta(current, delta)),
+        onResync: () => { fetchCart(); },
+      }, controller.signal)
+        .catch(() => {})
+        .finally(() => {
+          if (!controller.signal.aborted) retry = setTimeout(connect, STREAM_RETRY_MS);
+        });
+    };
+    connect();
+    return () => { controller.abort(); clearTimeout(retry); };
+  }, [isAuthenticated, fetchCart]);
+
   const addItem = useCallback(async (product: ProductDto, quantity: number = 1): Promise<void> => {
     const { data } = await cartApi.addItem({
       productId: product.id,
@@ -62,7 +103,7 @@ export const CartProvider = ({ children }: { children: ReactNode }) => {
 
   const clearCart = useCallback(async (): Promise<void> => {
     await cartApi.clearCart();
-    setCart(emptyCart);
+    setCart((current) => ({ ...emptyCart, id: current.id, version: current.version }));
   }, []);
 
   return (
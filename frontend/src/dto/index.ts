@@ -3,7 +3,10 @@ export type {
   ApiResponse,
   AuthDto,
   UserDto,
+  FavoriteStatus,
+  SuggestionDto,
   CartDto,
+  CartDelta,
   CartItemDto,
   ProductDto,
   ProductListDto,
@@ -21,6 +21,18 @@ export interface UserDto {
   favoriteProductIds: number[];
 }
 
+export interface SuggestionDto {
+  text: string;
+  type: 'product' | 'brand';
+  productId: number | null;
+}
+
+export interface FavoriteStatus {
+  productId: number;
+  favorite: boolean;
+  favoriteCount: number;
+}
+
 export interface CartItemDto {
   id: number;
   productId: number;
@@ -33,7 +45,18 @@ export interface CartItemDto {
 
 export interface CartDto {
   id: number;
+  version?: number;
+  items: CartItemDto[];
+  total: number;
+  totalItems: number;
+}
+
+export interface CartDelta {
+  cartId: number;
+  version: number;
+  cleared: boolean;
   items: CartItemDto[];
+  removed: number[];
   total: number;
   totalItems: number;
 }
@@ -60,6 +83,7 @@ export interface ProductListDto {
   total: number;
   skip: number;
   limit: number;
+  nextCursor?: string | null;
 }
 
 export interface CategoryDto {
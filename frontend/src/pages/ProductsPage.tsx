@@ -4,9 +4,10 @@ import { toast } from 'react-toastify';
 import { Search, Heart, ShoppingBag, Star, ChevronLeft, ChevronRight } from 'lucide-react';
 import { productApi, userApi } from '../api';
 import { useCart } from '../context/CartContext';
-import type { ProductDto, CategoryDto } from '../dto';
+import type { ProductDto, CategoryDto, SuggestionDto } from '../dto';
 
 const PAGE_SIZES = [12, 24, 48] as const;
+const SUGGEST_DELAY_MS = 150;
 
 const SORT_OPTIONS: { value: string; label: string }[] = [
   { value: 'id-asc',      label: 'Default' },
@@ -28,6 +29,7 @@ export default function ProductsPage(): React.JSX.Element {
   const [category, setCategory]       = useState<string>('');
   const [categories, setCategories]   = useState<CategoryDto[]>([]);
   const [favorites, setFavorites]     = useState<Set<number>>(new Set());
+  const [suggestions, setSuggestions] = useState<SuggestionDto[]>([]);
   const { addItem } = useCart();
   const navigate = useNavigate();
 
@@ -64,6 +66,21 @@ export default function ProductsPage(): React.JSX.Element {
 
   useEffect(() => { fetchProducts(); }, [fetchProducts]);
 
+  useEffect(() => {
+    const prefix = searchInput.trim();
+    if (!prefix) {
+      setSuggestions([]);
+      return;
+    }
+    let cancelled = false;
+    const timer = setTimeout(() => {
+      productApi.suggest(prefix)
+        .then(({ data }) => { if (!cancelled) setSuggestions(data.data ?? []); })
+        .catch(() => {});
+    }, SUGGEST_DELAY_MS);
+    return () => { cancelled = true; clearTimeout(timer); };
+  }, [searchInput]);
+
   const handleSearch = (e: React.FormEvent<HTMLFormElement>): void => {
     e.preventDefault();
     setSearch(searchInput);
@@ -124,8 +141,15 @@ export default function ProductsPage(): React.JSX.Element {
               value={searchInput}
               onChange={(e) => setSearchInput(e.target.value)}
               placeholder="Search products..."
+              list="product-suggestions"
+              autoComplete="off"
               className="w-full pl-10 pr-4 py-3.5 bg-white border border-cream-200 rounded-xl text-sm text-stone-700 placeholder-stone-300 focus:outline-none focus:ring-2 focus:ring-brand-300 shadow-soft transition"
             />
+            <datalist id="product-suggestions">
+              {suggestions.map((s) => (
+                <option key={`${s.type}-${s.text}`} value={s.text} />
+              ))}
+            </datalist>
           </div>
           <button type="submit" className="px-5 py-3.5 bg-brand-700 text-cream-50 text-sm rounded-xl hover:bg-brand-800 transition-colors font-medium">
             Search
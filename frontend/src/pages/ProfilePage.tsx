@@ -2,26 +2,32 @@ import React, { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
 import { toast } from 'react-toastify';
 import { User, Heart, Mail, AtSign, Star, Trash2, ShoppingBag } from 'lucide-react';
-import { userApi, productApi } from '../api';
+import { userApi } from '../api';
 import { useCart } from '../context/CartContext';
 import type { UserDto, ProductDto } from '../dto';
 
+const PAGE_SIZE = 24;
+
 export default function ProfilePage(): React.JSX.Element {
   const [userData, setUserData]             = useState<UserDto | null>(null);
   const [favoriteProducts, setFavoriteProducts] = useState<ProductDto[]>([]);
+  const [favoriteTotal, setFavoriteTotal]   = useState<number>(0);
+  const [nextSkip, setNextSkip]             = useState<number>(0);
   const [loading, setLoading]               = useState<boolean>(true);
+  const [loadingMore, setLoadingMore]       = useState<boolean>(false);
   const { addItem } = useCart();
 
   useEffect(() => {
     const load = async (): Promise<void> => {
       try {
-        const { data } = await userApi.getMe();
-        setUserData(data.data);
-        const ids: number[] = data.data?.favoriteProductIds ?? [];
-        if (ids.length > 0) {
-          const results = await Promise.all(ids.map(id => productApi.getById(id)));
-          setFavoriteProducts(results.map(r => r.data.data));
-        }
+        const [me, favorites] = await Promise.all([
+          userApi.getMe(),
+          userApi.getFavorites({ limit: PAGE_SIZE, skip: 0 }),
+        ]);
+        setUserData(me.data.data);
+        setFavoriteProducts(favorites.data.data.products);
+        setFavoriteTotal(favorites.data.data.total);
+        setNextSkip(PAGE_SIZE);
       } catch {
         toast.error('Failed to load profile');
       } finally {
@@ -31,10 +37,27 @@ export default function ProfilePage(): React.JSX.Element {
     load();
   }, []);
 
+  const handleShowMore = async (): Promise<void> => {
+    setLoadingMore(true);
+    try {
+      const { data } = await userApi.getFavorites({ limit: PAGE_SIZE, skip: nextSkip });
+      setFavoriteProducts(prev => [...prev, ...data.data.products]);
+      setFavoriteTotal(data.data.total);
+      setNextSkip(nextSkip + PAGE_SIZE);
+    } catch {
+      toast.error('Failed to load favorites');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleRemoveFavorite = async (productId: number): Promise<void> => {
     try {
-      await userApi.removeFavorite(productId);
+      const { data } = await userApi.removeFavorite(productId);
       setFavoriteProducts(prev => prev.filter(p => p.id !== productId));
+      setFavoriteTotal(data.data.favoriteCount);
+      // The removed id shifts every later favorite one slot forward
+      setNextSkip(prev => Math.max(prev - 1, 0));
       toast.success('Removed from favorites');
     } catch {
       toast.error('Could not remove favorite');
@@ -86,7 +109,7 @@ export default function ProfilePage(): React.JSX.Element {
 
         <div className="grid grid-cols-2 gap-4 mt-8 pt-6 border-t border-cream-200">
           <div className="text-center p-4 bg-cream-50 rounded-2xl">
-            <p className="font-display text-3xl text-brand-700 mb-1">{favoriteProducts.length}</p>
+            <p className="font-display text-3xl text-brand-700 mb-1">{favoriteTotal}</p>
             <p className="text-xs text-stone-400 uppercase tracking-widest font-medium">Favorites</p>
           </div>
           <div className="text-center p-4 bg-cream-50 rounded-2xl">
@@ -103,7 +126,7 @@ export default function ProfilePage(): React.JSX.Element {
             <Heart size={18} className="fill-rose-400 text-rose-400" />
             <h2 className="font-display text-2xl text-stone-800">Favorites</h2>
           </div>
-          <span className="text-xs text-stone-400 font-light">{favoriteProducts.length} saved</span>
+          <span className="text-xs text-stone-400 font-light">{favoriteTotal} saved</span>
         </div>
 
         {favoriteProducts.length === 0 ? (
@@ -154,6 +177,18 @@ export default function ProfilePage(): React.JSX.Element {
             ))}
           </div>
         )}
+
+        {nextSkip < favoriteTotal && (
+          <div className="text-center mt-6">
+            <button
+              onClick={handleShowMore}
+              disabled={loadingMore}
+              className="text-xs text-brand-600 hover:text-brand-800 underline underline-offset-2 transition-colors disabled:opacity-50"
+            >
+              {loadingMore ? 'Loading…' : 'Show more'}
+            </button>
+          </div>
+        )}
       </div>
     </div>
   );